@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.benchmark;
+
+import com.brahma.benchmark.model.Brahma_CustomerDao;
+import com.brahma.benchmark.model.Brahma_PurchaseOrderDao;
+import com.brahma.benchmark.model.Country;
+import com.brahma.benchmark.model.Customer;
+import com.brahma.benchmark.model.OrderStatus;
+import com.brahma.benchmark.model.PurchaseOrder;
+import com.brahma.benchmark.model.SalesChannel;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.Environment;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory H2 database the benchmarks run against, with its Hibernate session factory. The session factory uses the
+ * "managed" current session context, the one Dropwizard binds sessions to, and every benchmark operation runs in its
+ * own session and transaction the way a {@literal @}UnitOfWork resource method does.
+ */
+public final class BenchmarkDatabase {
+    /**
+     * Number of seeded customers.
+     */
+    public static final int CUSTOMERS = 100;
+    /**
+     * Number of seeded purchase orders, spread evenly over the customers, statuses and channels.
+     */
+    public static final int ORDERS = 20000;
+    /**
+     * Rows inserted per JDBC batch while seeding.
+     */
+    private static final int SEED_BATCH_SIZE = 500;
+    /**
+     * Distinguishes the databases of the session factories built in the same JVM.
+     */
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    /**
+     *
+     */
+    private BenchmarkDatabase() {
+
+    }
+
+    /**
+     * @param secondLevelCache true to enable the second level and query caches, backed by the JCache provider Ehcache
+     * @return Returns a session factory over a new, empty in-memory database.
+     */
+    public static SessionFactory createSessionFactory(final boolean secondLevelCache) {
+        Properties properties = new Properties();
+        properties.setProperty(Environment.DRIVER, "org.h2.Driver");
+        properties.setProperty(Environment.URL, "jdbc:h2:mem:brahma" + DATABASES.incrementAndGet()
+                + ";DB_CLOSE_DELAY=-1");
+        properties.setProperty(Environment.USER, "sa");
+        properties.setProperty(Environment.PASS, "");
+        properties.setProperty(Environment.POOL_SIZE, "32");
+        properties.setProperty(Environment.DIALECT, "org.hibernate.dialect.H2Dialect");
+        properties.setProperty(Environment.HBM2DDL_AUTO, "create");
+        properties.setProperty(Environment.CURRENT_SESSION_CONTEXT_CLASS, "managed");
+        properties.setProperty(Environment.GENERATE_STATISTICS, String.valueOf(secondLevelCache));
+        properties.setProperty(Environment.USE_SECOND_LEVEL_CACHE, String.valueOf(secondLevelCache));
+        properties.setProperty(Environment.USE_QUERY_CACHE, String.valueOf(secondLevelCache));
+        if (secondLevelCache) {
+            properties.setProperty(Environment.CACHE_REGION_FACTORY, "org.hibernate.cache.jcache.JCacheRegionFactory");
+            properties.setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        }
+        return new Configuration()
+                .addProperties(properties)
+                .addAnnotatedClass(Customer.class)
+                .addAnnotatedClass(PurchaseOrder.class)
+                .addAnnotatedClass(Country.class)
+                .buildSessionFactory();
+    }
+
+    /**
+     * Seeds {@linkplain #CUSTOMERS} customers and {@linkplain #ORDERS} purchase orders. Ids are assigned in insertion
+     * order starting at 1, order "order-n" having id n + 1.
+     *
+     * @param sessionFactory session factory of the database
+     */
+    public static void seed(final SessionFactory sessionFactory) {
+        List<Customer> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer();
+            customer.setName("customer-" + i);
+            customer.setEmail("customer-" + i + "@example.com");
+            customer.setCity("city-" + (i % 10));
+            customers.add(customer);
+        }
+        new Brahma_CustomerDao(sessionFactory).insertAll(customers, SEED_BATCH_SIZE);
+
+        List<PurchaseOrder> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(newOrder("order-" + i, i));
+        }
+        new Brahma_PurchaseOrderDao(sessionFactory).insertAll(orders, SEED_BATCH_SIZE);
+    }
+
+    /**
+     * @param orderNumber unique number of the order
+     * @param seed        value the other columns are derived from
+     * @return Returns a transient purchase order. Status, channel, currency, priority and gift wrapping are left to
+     * the defaults of the generated dao for every other order.
+     */
+    public static PurchaseOrder newOrder(final String orderNumber, final int seed) {
+        PurchaseOrder order = new PurchaseOrder();
+        order.setOrderNumber(orderNumber);
+        order.setCustomer(customerStub(seed % CUSTOMERS + 1));
+        if (seed % 2 == 1) {
+            order.setStatus(OrderStatus.values()[seed / CUSTOMERS % OrderStatus.values().length]);
+            order.setChannel(SalesChannel.values()[seed % SalesChannel.values().length]);
+        }
+        order.setQuantity(1 + seed % 5);
+        order.setUnitPrice(BigDecimal.valueOf(100 + seed % 900, 2));
+        order.setDiscount(BigDecimal.ZERO);
+        order.setTax(BigDecimal.valueOf(18));
+        order.setShippingAddress("street " + seed);
+        order.setShippingCity("city-" + seed % 10);
+        order.setShippingState("state-" + seed % 5);
+        order.setShippingPincode(String.valueOf(560000 + seed % 100));
+        order.setWarehouse("warehouse-" + seed % 3);
+        Date now = new Date();
+        order.setCreatedAt(now);
+        order.setUpdatedAt(now);
+        return order;
+    }
+
+    /**
+     * @param customerId id of a seeded customer
+     * @return Returns an id-only customer, enough to reference it from an order or to search orders on it.
+     */
+    public static Customer customerStub(final long customerId) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        return customer;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.benchmark;
+
+import com.brahma.benchmark.model.Brahma_PurchaseOrderDao;
+import com.brahma.benchmark.model.OrderStatus;
+import com.brahma.benchmark.model.PurchaseOrder;
+import com.brahma.dao.meta.SearchMeta;
+import com.brahma.dao.meta.SortType;
+import com.brahma.dao.support.SessionTasks;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks the methods of a generated dao against an in-memory H2 database, single threaded. Every operation runs
+ * in its own session and transaction {@linkplain SessionTasks}, the way a {@literal @}UnitOfWork resource method
+ * calls the dao. Throughput and sampled latency percentiles are reported for every method, run with the "gc" profiler
+ * {@linkplain BenchmarkRunner} to add the allocation per operation.
+ * <p>
+ * "searchCriteria" runs the search of "search" through a hand built Criteria query, the way every search was run
+ * before the generated HQL cache, so both paths can be compared on the same data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class DaoBenchmark {
+    /**
+     * Number of the next order inserted by "createOrUpdate", after the seeded ones.
+     */
+    private final AtomicLong nextOrder = new AtomicLong(BenchmarkDatabase.ORDERS);
+    private SessionFactory sessionFactory;
+    private Brahma_PurchaseOrderDao dao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = BenchmarkDatabase.createSessionFactory(false);
+        BenchmarkDatabase.seed(sessionFactory);
+        dao = new Brahma_PurchaseOrderDao(sessionFactory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public PurchaseOrder createOrUpdate() {
+        PurchaseOrder order = BenchmarkDatabase.newOrder("order-" + nextOrder.getAndIncrement(),
+                ThreadLocalRandom.current().nextInt(BenchmarkDatabase.ORDERS));
+        return SessionTasks.call(sessionFactory, false, () -> dao.createOrUpdate(order));
+    }
+
+    @Benchmark
+    public PurchaseOrder getById() {
+        long id = 1 + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.ORDERS);
+        return SessionTasks.call(sessionFactory, true, () -> dao.getById(id));
+    }
+
+    @Benchmark
+    public List<PurchaseOrder> search() {
+        PurchaseOrder example = randomExample();
+        return SessionTasks.call(sessionFactory, true, () -> dao.search(example));
+    }
+
+    @Benchmark
+    public List<PurchaseOrder> searchCriteria() {
+        PurchaseOrder example = randomExample();
+        return SessionTasks.call(sessionFactory, true, () -> {
+            CriteriaBuilder criteriaBuilder = sessionFactory.getCurrentSession().getCriteriaBuilder();
+            CriteriaQuery<PurchaseOrder> query = criteriaBuilder.createQuery(PurchaseOrder.class);
+            Root<PurchaseOrder> from = query.from(PurchaseOrder.class);
+            List<Predicate> searchRestrictions = new ArrayList<>();
+            searchRestrictions.add(criteriaBuilder.equal(from.get("customer").get("id"),
+                    example.getCustomer().getId()));
+            searchRestrictions.add(criteriaBuilder.equal(from.get("status"), example.getStatus()));
+            return dao.search(example, searchRestrictions, from, query);
+        });
+    }
+
+    @Benchmark
+    public List<PurchaseOrder> searchWithParams() {
+        PurchaseOrder example = new PurchaseOrder();
+        example.setStatus(randomStatus());
+        SearchMeta searchParams = SearchMeta.builder().sortBy("createdAt").sortType(SortType.DESC).maxResults(20)
+                .build();
+        return SessionTasks.call(sessionFactory, true, () -> dao.search(example, searchParams));
+    }
+
+    @Benchmark
+    public PurchaseOrder searchUniqueResult() {
+        PurchaseOrder example = new PurchaseOrder();
+        example.setOrderNumber("order-" + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.ORDERS));
+        return SessionTasks.call(sessionFactory, true, () -> dao.searchUniqueResult(example));
+    }
+
+    @Benchmark
+    public PurchaseOrder getByOrderNumber() {
+        String orderNumber = "order-" + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.ORDERS);
+        return SessionTasks.call(sessionFactory, true, () -> dao.getByOrderNumber(orderNumber));
+    }
+
+    /**
+     * @return Returns an example matching the orders of a random customer in a random status.
+     */
+    private static PurchaseOrder randomExample() {
+        PurchaseOrder example = new PurchaseOrder();
+        example.setCustomer(BenchmarkDatabase.customerStub(1 + ThreadLocalRandom.current()
+                .nextInt(BenchmarkDatabase.CUSTOMERS)));
+        example.setStatus(randomStatus());
+        return example;
+    }
+
+    /**
+     * @return Returns a random order status.
+     */
+    private static OrderStatus randomStatus() {
+        return OrderStatus.values()[ThreadLocalRandom.current().nextInt(OrderStatus.values().length)];
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.benchmark;
+
+import com.brahma.dao.processor.DaoProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the build time of a module of entity classes, compiled with the dao processor. Compiling a single entity is
+ * what an incremental build does once an entity is edited, the processor being isolating, while compiling all of them
+ * is what a full build does.
+ * <pre><code>
+ * java -jar benchmarks/target/benchmarks.jar ProcessorBenchmark -p entities=1,1000
+ * </code></pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ProcessorBenchmark {
+    /**
+     * Number of entity classes compiled.
+     */
+    @Param({"1", "100", "600", "1000"})
+    private int entities;
+    private Path sourceDirectory;
+    private List<File> sources;
+    private Path outputDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        sourceDirectory = Files.createTempDirectory("brahma-entities");
+        Path packageDirectory = Files.createDirectories(sourceDirectory.resolve("com/example"));
+        sources = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            Path source = packageDirectory.resolve("Entity" + i + ".java");
+            Files.write(source, createEntitySource("Entity" + i).getBytes(StandardCharsets.UTF_8));
+            sources.add(source.toFile());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createOutputDirectory() throws IOException {
+        outputDirectory = Files.createTempDirectory("brahma-classes");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteOutputDirectory() throws IOException {
+        delete(outputDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(sourceDirectory);
+    }
+
+    @Benchmark
+    public boolean compile() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null,
+                StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(sources);
+            List<String> options = Arrays.asList("-Abrahma.dao.indexAdvisory=off",
+                    "-cp", System.getProperty("java.class.path"), "-s", outputDirectory.toString(),
+                    "-d", outputDirectory.toString());
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null,
+                    compilationUnits);
+            task.setProcessors(Collections.singletonList(new DaoProcessor()));
+            if (!task.call()) {
+                throw new IllegalStateException("Compilation of the entity classes failed");
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @param simpleName simple name of the entity class
+     * @return Returns the source of an entity class with a dozen columns, an enum with a default value and a
+     * searchable association to itself.
+     */
+    private static String createEntitySource(final String simpleName) {
+        StringBuilder source = new StringBuilder()
+                .append("package com.example;\n")
+                .append("import com.brahma.dao.annotations.Default;\n")
+                .append("import com.brahma.dao.annotations.GenerateDao;\n")
+                .append("import javax.persistence.*;\n")
+                .append("@GenerateDao(supportSearchVariations = true)\n")
+                .append("@Entity\n")
+                .append("public class ").append(simpleName).append(" {\n")
+                .append("    public enum Status { NEW, DONE }\n")
+                .append("    @Id @GeneratedValue(strategy = GenerationType.IDENTITY) private Long id;\n")
+                .append("    @Default(value = \"NEW\", clazz = Enum.class) private Status status;\n")
+                .append("    @ManyToOne(fetch = FetchType.LAZY) private ").append(simpleName).append(" parent;\n");
+        List<String[]> fields = new ArrayList<>();
+        fields.add(new String[]{"Long", "id"});
+        fields.add(new String[]{"Status", "status"});
+        fields.add(new String[]{simpleName, "parent"});
+        for (int i = 0; i < 10; i++) {
+            String type = "String";
+            if (i % 3 == 1) {
+                type = "Integer";
+            } else if (i % 3 == 2) {
+                type = "java.math.BigDecimal";
+            }
+            source.append("    private ").append(type).append(" column").append(i).append(";\n");
+            fields.add(new String[]{type, "column" + i});
+        }
+        for (String[] field : fields) {
+            String property = Character.toUpperCase(field[1].charAt(0)) + field[1].substring(1);
+            source.append("    public ").append(field[0]).append(" get").append(property).append("() { return ")
+                    .append(field[1]).append("; }\n")
+                    .append("    public void set").append(property).append("(").append(field[0]).append(" value) { ")
+                    .append(field[1]).append(" = value; }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    /**
+     * @param directory directory to delete with all its content
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.brahma.benchmark;
+
+import com.brahma.benchmark.model.Brahma_CountryDao;
+import com.brahma.benchmark.model.Country;
+import com.brahma.dao.support.SessionTasks;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class CacheStatisticsTest {
+    private SessionFactory sessionFactory;
+    private Brahma_CountryDao dao;
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        sessionFactory = BenchmarkDatabase.createSessionFactory(true);
+        dao = new Brahma_CountryDao(sessionFactory);
+        SessionTasks.call(sessionFactory, false, () -> {
+            for (String code : Arrays.asList("IN", "US", "DE")) {
+                Country country = new Country();
+                country.setCode(code);
+                country.setName("country-" + code);
+                dao.createOrUpdate(country);
+            }
+            return null;
+        });
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    public void getByIdSecondLevelCacheTest() {
+        Country first = SessionTasks.call(sessionFactory, true, () -> dao.getById(1L));
+        Assert.assertEquals("IN", first.getCode());
+        Assert.assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        Assert.assertEquals(1, statistics.getSecondLevelCacheMissCount());
+
+        Country second = SessionTasks.call(sessionFactory, true, () -> dao.getById(1L));
+        Assert.assertEquals("IN", second.getCode());
+        Assert.assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        Assert.assertEquals(1, statistics.getSecondLevelCacheMissCount());
+    }
+
+    @Test
+    public void searchQueryCacheTest() {
+        Country example = new Country();
+        example.setCode("US");
+        List<Country> first = SessionTasks.call(sessionFactory, true, () -> dao.search(example));
+        Assert.assertEquals(1, first.size());
+        Assert.assertEquals(0, statistics.getQueryCacheHitCount());
+        Assert.assertEquals(1, statistics.getQueryCacheMissCount());
+
+        List<Country> second = SessionTasks.call(sessionFactory, true, () -> dao.search(example));
+        Assert.assertEquals(1, second.size());
+        Assert.assertEquals(1, statistics.getQueryCacheHitCount());
+        Assert.assertEquals(1, statistics.getQueryCacheMissCount());
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.annotations;
+
+import org.hibernate.CacheMode;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Opts the dao generated for an entity class {@linkplain GenerateDao} into the Hibernate second level and query
+ * caches. The cache provider and the regions themselves are configured through the Hibernate properties, e.g.
+ * "hibernate.cache.use_second_level_cache", "hibernate.cache.use_query_cache" and the region factory of a JCache
+ * provider.
+ * <pre><code>
+ * {@literal @}Entity
+ * {@literal @}Cacheable
+ * {@literal @}GenerateDao
+ * {@literal @}DaoCache(region = "reference.countries")
+ * public class EntityClass {}
+ * </code></pre>
+ *
+ * @see "/testfiles/generatedao_input7.txt"
+ */
+@Target(TYPE)
+@Retention(SOURCE)
+public @interface DaoCache {
+    /**
+     * @return query cache region of the generated search queries, exposed as the constant "SEARCH_CACHE_REGION" of the
+     * dao. Defaults to the qualified name of the entity class followed by ".search".
+     */
+    String region() default "";
+
+    /**
+     * @return boolean value which makes the generated search queries cacheable in the query cache.
+     */
+    boolean searches() default true;
+
+    /**
+     * @return cache mode of the generated "getById" and search queries, e.g. {@linkplain CacheMode#GET} for daos which
+     * read the second level cache without filling it, or {@linkplain CacheMode#REFRESH} for daos which refresh it from
+     * the database. Any mode other than {@linkplain CacheMode#NORMAL}, the default of a session, overrides the cache
+     * mode of the current session. The entity class itself has to be cacheable, {@linkplain
+     * javax.persistence.Cacheable} or {@linkplain org.hibernate.annotations.Cache}, for "getById" to use the second
+     * level cache.
+     */
+    CacheMode cacheMode() default CacheMode.NORMAL;
+}
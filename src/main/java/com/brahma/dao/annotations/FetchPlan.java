@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Declares a named fetch plan of an entity class, used with {@linkplain GenerateDao#fetchPlans()}. The associations
+ * of the plan are fetched along with the searched entities in the same query, instead of one lazy select per entity.
+ * A plan either lists association paths, starting with a {@literal @}ManyToOne or {@literal @}OneToOne field of the
+ * entity class, or names a JPA entity graph {@linkplain javax.persistence.NamedEntityGraph}.
+ * <pre><code>
+ * {@literal @}Entity
+ * {@literal @}GenerateDao(fetchPlans = {@literal @}FetchPlan(name = "WithCustomer", paths = {"customer"}))
+ * public class EntityClass {}
+ * </code></pre>
+ * Generates the dao method "searchWithCustomer(EntityClass)", and "searchWithCustomer(EntityClass, SearchMeta)" when
+ * {@linkplain GenerateDao#supportSearchVariations()} is true.
+ *
+ * @see "/testfiles/generatedao_input9.txt"
+ */
+@Target({})
+@Retention(SOURCE)
+public @interface FetchPlan {
+    /**
+     * @return name of the fetch plan, appended to the generated search method names.
+     */
+    String name();
+
+    /**
+     * @return dotted paths of the associations to fetch, e.g. "customer" or "customer.address".
+     */
+    String[] paths() default {};
+
+    /**
+     * @return name of the entity graph to fetch, used instead of {@linkplain #paths()}.
+     */
+    String entityGraph() default "";
+}
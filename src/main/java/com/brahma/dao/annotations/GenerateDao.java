@@ -37,6 +37,11 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
 @Target(TYPE)
 @Retention(SOURCE)
 public @interface GenerateDao {
+    /**
+     * Default number of ids bound in a single IN list by the generated "getByIds" method.
+     */
+    int DEFAULT_ID_BATCH_SIZE = 500;
+
     /**
      * @return boolean value which generates dao classes with or without search variations. {@linkplain
      * com.brahma.dao.processor.DaoProcessor #generateAllSearchVariationsMethods()}
@@ -48,5 +53,142 @@ public @interface GenerateDao {
      * @see "/testfiles/generatedao_input1.txt"
      */
     boolean supportSearchVariations() default false;
-}
 
+    /**
+     * @return named projections {@linkplain Projection} of the entity class, each one generating an immutable class
+     * and a search method which selects only the projected columns.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(projections = {@literal @}Projection(name = "Summary", fields = {"id", "orderId"}))
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input8.txt"
+     */
+    Projection[] projections() default {};
+
+    /**
+     * @return named fetch plans {@linkplain FetchPlan} of the entity class, each one generating search methods which
+     * fetch the associations of the plan in the same query as the searched entities.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(fetchPlans = {@literal @}FetchPlan(name = "WithCustomer", paths = {"customer"}))
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input9.txt"
+     */
+    FetchPlan[] fetchPlans() default {};
+
+    /**
+     * @return maximum number of ids bound in a single IN list by the generated "getByIds" method. Larger
+     * collections of ids are loaded in several queries, keeping every query under the bind parameter limit of the
+     * database.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(idBatchSize = 250)
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input7.txt"
+     */
+    int idBatchSize() default DEFAULT_ID_BATCH_SIZE;
+
+    /**
+     * @return boolean value which makes the generated search methods load read only entities. Read only entities are
+     * not snapshotted for dirty checking and are skipped on flush, which suits entities that are mostly read. It can
+     * be overridden per call with {@linkplain com.brahma.dao.meta.SearchMeta#getReadOnly()}.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(readOnlySearch = true)
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input6.txt"
+     */
+    boolean readOnlySearch() default false;
+
+    /**
+     * @return boolean value which generates a criteria class "Brahma_EntityClassCriteria" next to the dao, with range,
+     * IN, prefix and null check conditions on the searchable fields, and the "searchByCriteria" methods applying them
+     * in the database along with the example object.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(searchCriteria = true)
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input10.txt"
+     */
+    boolean searchCriteria() default false;
+
+    /**
+     * @return boolean value which generates an async companion class "Brahma_EntityClassAsyncDao" next to the dao.
+     * Its methods run the dao methods on an executor, each call in its own session and transaction, and return
+     * CompletableFuture objects, so lookups can overlap without blocking the calling thread.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(async = true)
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input12.txt"
+     */
+    boolean async() default false;
+
+    /**
+     * @return boolean value which generates the "parallelScan" methods. They split the ids of the rows matching an
+     * example into disjoint ranges, using MIN/MAX for numeric ids and evenly spaced ids otherwise, and scan every range
+     * in batches in its own session on an executor. Only generated for entities with a comparable @Id.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(parallelScan = true)
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input13.txt"
+     */
+    boolean parallelScan() default false;
+
+    /**
+     * @return boolean value which generates an instrumented subclass "Brahma_EntityClassInstrumentedDao" of the dao,
+     * taking a MetricRegistry next to the SessionFactory. Every public dao method gets a Timer, an error Meter and,
+     * when it returns rows, a Histogram of the number of rows. The dao itself is left untouched, so nothing is measured
+     * and nothing is paid for when it is used directly.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(metrics = true)
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input14.txt"
+     */
+    boolean metrics() default false;
+
+    /**
+     * @return boolean value which routes the search methods through a slow query log hook. Searches slower than the
+     * threshold of the SlowQueryLog set with "setSlowQueryLog" are logged with the fields of the example which
+     * restricted them, never their values, the sort and limit of the SearchMeta, the number of rows and the elapsed
+     * time. No search is logged until a SlowQueryLog is set.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(slowQueryLog = true)
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input15.txt"
+     */
+    boolean slowQueryLog() default false;
+
+    /**
+     * @return boolean value which generates "upsert" and "upsertAll". They insert or update an entity with a single
+     * statement of the dialect of the session factory, "on conflict" for PostgreSQL, "on duplicate key update" for
+     * MySQL and "merge" for H2, SQL Server and Oracle, instead of the select "createOrUpdate" may run first. Default
+     * values {@linkplain Default} are applied as with "createOrUpdate". The @Id of the entity has to be assigned, and
+     * the entity is written without being attached to the session, whose pending changes are not flushed first.
+     * <pre><code>
+     * {@literal @}Entity
+     * {@literal @}GenerateDao(upsert = true, upsertKey = "orderId")
+     * public class EntityClass {}
+     * </code></pre>
+     * @see "/testfiles/generatedao_input16.txt"
+     */
+    boolean upsert() default false;
+
+    /**
+     * @return names of the fields forming the unique key the generated upsert is keyed on, the @Id field when empty.
+     * The fields have to be covered by a unique constraint of the table.
+     */
+    String[] upsertKey() default {};
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Adds a bounded in-process near cache {@linkplain com.brahma.dao.support.ConcurrentLruCache} in front of the
+ * "getById" of the dao generated for an entity class {@linkplain GenerateDao}. Entries are invalidated by the
+ * generated "createOrUpdate" and the whole cache is cleared by the generated bulk statements. The counters of the
+ * cache are exposed through the generated "getNearCache".
+ * <p>
+ * Cached entities are shared by all the callers of the dao and are detached: "getById" evicts the entity it loads
+ * from the current session before caching it, so changes to the returned instance are not flushed and its lazy
+ * associations cannot be initialized. Writes invalidate their entries right away and again once their transaction
+ * completes, so a "getById" racing the commit cannot keep the old row. The near cache suits reference data which is
+ * read far more often than it is written. A maxSize or ttlSeconds lower than 1 is a compile error.
+ * <pre><code>
+ * {@literal @}Entity
+ * {@literal @}GenerateDao
+ * {@literal @}NearCache(maxSize = 10000, ttlSeconds = 300)
+ * public class EntityClass {}
+ * </code></pre>
+ *
+ * @see "/testfiles/generatedao_input7.txt"
+ */
+@Target(TYPE)
+@Retention(SOURCE)
+public @interface NearCache {
+    /**
+     * Default maximum number of cached entities.
+     */
+    int DEFAULT_MAX_SIZE = 1000;
+    /**
+     * Default time to live of a cached entity in seconds.
+     */
+    long DEFAULT_TTL_SECONDS = 60;
+
+    /**
+     * @return maximum number of cached entities, the least recently used ones being evicted first.
+     */
+    int maxSize() default DEFAULT_MAX_SIZE;
+
+    /**
+     * @return time to live of a cached entity in seconds.
+     */
+    long ttlSeconds() default DEFAULT_TTL_SECONDS;
+}
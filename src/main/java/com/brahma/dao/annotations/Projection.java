@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Declares a named projection of an entity class, used with {@linkplain GenerateDao#projections()}. An immutable
+ * class holding only the listed fields is generated along with a search method selecting only those columns.
+ * <pre><code>
+ * {@literal @}Entity
+ * {@literal @}GenerateDao(projections = {@literal @}Projection(name = "Summary", fields = {"id", "orderId"}))
+ * public class EntityClass {}
+ * </code></pre>
+ * Generates the class "Brahma_EntityClassSummary" and the dao method "searchSummary(EntityClass)".
+ *
+ * @see "/testfiles/generatedao_input8.txt"
+ */
+@Target({})
+@Retention(SOURCE)
+public @interface Projection {
+    /**
+     * @return name of the projection, appended to the generated class and search method names.
+     */
+    String name();
+
+    /**
+     * @return fields of the entity class selected by the projection.
+     */
+    String[] fields();
+}
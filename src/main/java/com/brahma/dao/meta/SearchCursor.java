@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.meta;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.ws.rs.ProcessingException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Opaque keyset cursor pointing just after the last row of a page. It holds the value of the sorted attribute and the
+ * value of the @Id {@linkplain javax.persistence.Id} attribute of that row, the id acting as a tie-breaker between rows
+ * sharing the same sort value.
+ * <p>
+ * Cursors are handed out by the generated "getNextCursor" method and passed back through {@linkplain
+ * SearchMeta#getAfter()}. Only well known value types are encoded, a cursor never carries serialized objects.
+ * <p>
+ * A cursor also records the sort {@linkplain SearchMeta#getSortBy()} and {@linkplain SearchMeta#getSortType()} it was
+ * issued for, and is rejected by a search sorted differently, as its values would point into another ordering. Rows
+ * with a null sort value can not be paged through, since a comparison with null never matches: no cursor is issued
+ * after such a row.
+ *
+ * @see "/testfiles/generatedao_output1.txt #getKeysetPredicate"
+ */
+@Getter
+@AllArgsConstructor
+public final class SearchCursor {
+    /**
+     * Separates the sort, the sort value and the id in an encoded cursor.
+     */
+    private static final String PART_SEPARATOR = ".";
+    /**
+     * Number of parts of an encoded cursor.
+     */
+    private static final int PARTS = 3;
+    /**
+     * Separates the type tag from the value inside an encoded part.
+     */
+    private static final String TYPE_SEPARATOR = ":";
+    /**
+     * Type tag used for enum values, followed by the enum class name.
+     */
+    private static final String ENUM_TAG = "enum";
+    /**
+     * Parsers of the supported value types keyed by their type tag.
+     */
+    private static final Map<String, Function<String, Comparable>> PARSERS = new HashMap<>();
+
+    static {
+        PARSERS.put(String.class.getName(), value -> value);
+        PARSERS.put(Integer.class.getName(), Integer::valueOf);
+        PARSERS.put(Long.class.getName(), Long::valueOf);
+        PARSERS.put(Short.class.getName(), Short::valueOf);
+        PARSERS.put(Byte.class.getName(), Byte::valueOf);
+        PARSERS.put(Double.class.getName(), Double::valueOf);
+        PARSERS.put(Float.class.getName(), Float::valueOf);
+        PARSERS.put(Boolean.class.getName(), Boolean::valueOf);
+        PARSERS.put(Character.class.getName(), value -> value.charAt(0));
+        PARSERS.put(BigDecimal.class.getName(), BigDecimal::new);
+        PARSERS.put(BigInteger.class.getName(), BigInteger::new);
+        PARSERS.put(UUID.class.getName(), UUID::fromString);
+        PARSERS.put(Instant.class.getName(), Instant::parse);
+        PARSERS.put(LocalDate.class.getName(), LocalDate::parse);
+        PARSERS.put(LocalDateTime.class.getName(), LocalDateTime::parse);
+        PARSERS.put(Timestamp.class.getName(), Timestamp::valueOf);
+        PARSERS.put(Date.class.getName(), value -> new Date(Long.parseLong(value)));
+    }
+
+    /**
+     * Value of the sorted attribute of the last row, null when the search is not sorted.
+     */
+    private final Comparable sortValue;
+    /**
+     * Value of the @Id {@linkplain javax.persistence.Id} attribute of the last row.
+     */
+    private final Comparable id;
+
+    /**
+     * @param searchParams search the page was fetched with
+     * @param sortValue    value of the sorted attribute of the last row of a page, null when the search is not sorted
+     * @param id           value of the @Id {@linkplain javax.persistence.Id} attribute of the last row of a page
+     * @return Returns the opaque cursor to be set as {@linkplain SearchMeta#setAfter(String)} to fetch the next page.
+     */
+    public static String encode(final SearchMeta searchParams, final Object sortValue, final Object id) {
+        if (id == null) {
+            throw new ProcessingException("Keyset cursor needs a non null id");
+        }
+        if (searchParams.getSortBy() != null && sortValue == null) {
+            throw new ProcessingException("Keyset cursor can not point after a row whose " + searchParams.getSortBy()
+                    + " is null, exclude null values of " + searchParams.getSortBy() + " from the search or page "
+                    + "with SearchMeta#firstResult");
+        }
+        return encodePart(getSort(searchParams)) + PART_SEPARATOR + encodePart(sortValue) + PART_SEPARATOR
+                + encodePart(id);
+    }
+
+    /**
+     * @param cursor       cursor returned by {@linkplain #encode(SearchMeta, Object, Object)}
+     * @param searchParams search the next page is fetched with, sorted the same way as the search the cursor was
+     *                     issued for
+     * @return Returns the decoded cursor.
+     */
+    public static SearchCursor decode(final String cursor, final SearchMeta searchParams) {
+        String[] parts = cursor.split(Pattern.quote(PART_SEPARATOR), -1);
+        if (parts.length != PARTS) {
+            throw new ProcessingException("Malformed keyset cursor " + cursor);
+        }
+        Comparable sort = decodePart(parts[0]);
+        String expectedSort = getSort(searchParams);
+        if (!Objects.equals(sort, expectedSort)) {
+            throw new ProcessingException("Keyset cursor was issued for " + describeSort(sort) + " but the search is "
+                    + describeSort(expectedSort));
+        }
+        Comparable sortValue = decodePart(parts[1]);
+        Comparable id = decodePart(parts[2]);
+        if (id == null || (sort != null && sortValue == null)) {
+            throw new ProcessingException("Malformed keyset cursor " + cursor);
+        }
+        return new SearchCursor(sortValue, id);
+    }
+
+    /**
+     * @param searchParams search of a page
+     * @return Returns the sorted attribute and the direction of the search, the way the generated dao orders it, null
+     * when the search is not sorted.
+     */
+    private static String getSort(final SearchMeta searchParams) {
+        if (searchParams.getSortBy() == null) {
+            return null;
+        }
+        if (searchParams.getSortType() == SortType.DESC) {
+            return searchParams.getSortBy() + " " + SortType.DESC;
+        }
+        return searchParams.getSortBy() + " " + SortType.ASC;
+    }
+
+    /**
+     * @param sort sort of a search, null when the search is not sorted
+     * @return Returns the sort in a readable form for error messages.
+     */
+    private static String describeSort(final Object sort) {
+        if (sort == null) {
+            return "an unsorted search";
+        }
+        return "a search sorted by " + sort;
+    }
+
+    /**
+     * @param value value of an attribute
+     * @return Returns the value tagged with its type and Base64 encoded, an empty string for null.
+     */
+    private static String encodePart(final Object value) {
+        if (value == null) {
+            return "";
+        }
+        String tagged;
+        if (value instanceof Enum) {
+            tagged = ENUM_TAG + TYPE_SEPARATOR + ((Enum) value).getDeclaringClass().getName() + TYPE_SEPARATOR
+                    + ((Enum) value).name();
+        } else if (value instanceof Timestamp) {
+            tagged = Timestamp.class.getName() + TYPE_SEPARATOR + value;
+        } else if (value instanceof Date) {
+            tagged = Date.class.getName() + TYPE_SEPARATOR + ((Date) value).getTime();
+        } else if (PARSERS.containsKey(value.getClass().getName())) {
+            tagged = value.getClass().getName() + TYPE_SEPARATOR + value;
+        } else {
+            throw new ProcessingException("Unsupported keyset cursor value type " + value.getClass().getName());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(tagged.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param part Base64 encoded part of a cursor
+     * @return Returns the decoded value, null for an empty part.
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparable decodePart(final String part) {
+        if (part.isEmpty()) {
+            return null;
+        }
+        String tagged;
+        try {
+            tagged = new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ProcessingException("Malformed keyset cursor part " + part, e);
+        }
+        int separator = tagged.indexOf(TYPE_SEPARATOR);
+        if (separator < 0) {
+            throw new ProcessingException("Malformed keyset cursor part " + part);
+        }
+        String type = tagged.substring(0, separator);
+        String value = tagged.substring(separator + 1);
+        if (ENUM_TAG.equals(type)) {
+            int nameSeparator = value.lastIndexOf(TYPE_SEPARATOR);
+            try {
+                Class enumClass = Class.forName(value.substring(0, nameSeparator), false,
+                        Thread.currentThread().getContextClassLoader());
+                if (!enumClass.isEnum()) {
+                    throw new ProcessingException("Unsupported keyset cursor value type " + enumClass.getName());
+                }
+                return Enum.valueOf(enumClass, value.substring(nameSeparator + 1));
+            } catch (ClassNotFoundException | IndexOutOfBoundsException e) {
+                throw new ProcessingException("Malformed keyset cursor part " + part, e);
+            }
+        }
+        Function<String, Comparable> parser = PARSERS.get(type);
+        if (parser == null) {
+            throw new ProcessingException("Unsupported keyset cursor value type " + type);
+        }
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new ProcessingException("Malformed keyset cursor part " + part, e);
+        }
+    }
+}
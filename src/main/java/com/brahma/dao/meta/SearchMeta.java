@@ -26,7 +26,7 @@ import lombok.NoArgsConstructor;
  * This class provides search parameters for generated dao search methods. Particular page of the result set can be
  * selected using SearchMeta class.
  *
- * {@linkplain com.brahma.dao.utils.CreateDaoUtils #createGetSearchQueryMethodWithParams(ClassName)}"
+ * {@linkplain com.brahma.dao.utils.CreateDaoUtils #createGetSearchQueryMethodWithParams(ClassName, String)}"
  */
 
 @Data
@@ -50,5 +50,20 @@ public class SearchMeta {
      * Index from the where the first row should be retrieved.
      */
     private Integer firstResult;
+    /**
+     * Keyset cursor {@linkplain SearchCursor} of the last row of the previous page. When set, rows are fetched after
+     * the cursor instead of skipping {@linkplain #firstResult} rows, so every page costs the same as the first one.
+     */
+    private String after;
+    /**
+     * Number of rows fetched from the database per round trip by the generated stream methods.
+     */
+    private Integer fetchSize;
+    /**
+     * Loads the searched entities as read only, overriding {@linkplain
+     * com.brahma.dao.annotations.GenerateDao#readOnlySearch()}. Read only entities are not snapshotted for dirty
+     * checking and changes made to them are never flushed.
+     */
+    private Boolean readOnly;
 
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.model;
+
+import javax.lang.model.element.Element;
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+
+/**
+ * Kind of association a field of an entity class is mapped with.
+ */
+public enum AssociationKind {
+    /**
+     * Plain column, not an association.
+     */
+    NONE,
+    /**
+     * {@linkplain ManyToOne} association.
+     */
+    MANY_TO_ONE,
+    /**
+     * {@linkplain OneToOne} association, owning or inverse.
+     */
+    ONE_TO_ONE,
+    /**
+     * {@linkplain OneToMany} association.
+     */
+    ONE_TO_MANY,
+    /**
+     * {@linkplain ManyToMany} association.
+     */
+    MANY_TO_MANY;
+
+    /**
+     * @param field Field of the entity class
+     * @return Returns the kind of association the field is mapped with.
+     */
+    public static AssociationKind of(final Element field) {
+        if (field.getAnnotation(ManyToOne.class) != null) {
+            return MANY_TO_ONE;
+        }
+        if (field.getAnnotation(OneToOne.class) != null) {
+            return ONE_TO_ONE;
+        }
+        if (field.getAnnotation(OneToMany.class) != null) {
+            return ONE_TO_MANY;
+        }
+        if (field.getAnnotation(ManyToMany.class) != null) {
+            return MANY_TO_MANY;
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.model;
+
+import com.brahma.dao.annotations.DaoCache;
+import com.brahma.dao.annotations.GenerateDao;
+import com.brahma.dao.annotations.NearCache;
+import com.brahma.dao.utils.AnnotatedClassUtils;
+import com.squareup.javapoet.ClassName;
+import lombok.Builder;
+import lombok.Getter;
+import org.hibernate.annotations.Cache;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.persistence.Cacheable;
+import javax.persistence.Table;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Entity class annotated with {@linkplain GenerateDao}, read in a single pass over its fields. The methods generating
+ * the dao class share it instead of walking the enclosed elements and reading the same annotations again.
+ */
+@Getter
+@Builder
+public final class EntityModel {
+    /**
+     * Element of the entity class.
+     */
+    private final TypeElement typeElement;
+    /**
+     * Name of the entity class.
+     */
+    private final ClassName entityClass;
+    /**
+     * Name of the entity parameter of the generated methods, e.g. "brahmaEntity".
+     */
+    private final String parameterName;
+    /**
+     * {@linkplain GenerateDao} annotation of the entity class.
+     */
+    private final GenerateDao generateDao;
+    /**
+     * {@linkplain DaoCache} annotation of the entity class, null if there is none.
+     */
+    private final DaoCache daoCache;
+    /**
+     * Fields of the entity class, in declaration order.
+     */
+    private final List<FieldModel> fields;
+    /**
+     * Field annotated with @Id {@linkplain javax.persistence.Id}, null if there is none.
+     */
+    private final FieldModel idField;
+    /**
+     * Fields the generated search methods filter and sort on, in declaration order.
+     */
+    private final List<FieldModel> searchableFields;
+    /**
+     * Searchable fields and searchable association fields, in declaration order. Association fields are compared on
+     * the foreign key id only.
+     */
+    private final List<FieldModel> searchFields;
+    /**
+     * {@linkplain NearCache} annotation of the entity class, null if there is none.
+     */
+    private final NearCache nearCache;
+    /**
+     * {@linkplain Table} annotation of the entity class, null if there is none.
+     */
+    private final Table table;
+    /**
+     * True if the entity is stored in the second level cache, through {@linkplain Cacheable} or {@linkplain Cache}.
+     */
+    private final boolean cacheable;
+
+    /**
+     * @param typeElement  Element of the entity class
+     * @param elementUtils Utility methods for operating on annotated elements
+     * @return Returns the model of the entity class.
+     */
+    public static EntityModel of(final TypeElement typeElement, final Elements elementUtils) {
+        List<FieldModel> fields = new ArrayList<>();
+        FieldModel idField = null;
+        for (Element element : typeElement.getEnclosedElements()) {
+            if (!element.getKind().isField()) {
+                continue;
+            }
+            FieldModel field = FieldModel.of(element);
+            fields.add(field);
+            if (field.isId() && idField == null) {
+                idField = field;
+            }
+        }
+        Cacheable cacheable = typeElement.getAnnotation(Cacheable.class);
+        return builder()
+                .typeElement(typeElement)
+                .entityClass(ClassName.get(AnnotatedClassUtils.getQualifiedClassName(typeElement, elementUtils),
+                        AnnotatedClassUtils.getSimpleName(typeElement)))
+                .parameterName(AnnotatedClassUtils.getParameterName(typeElement))
+                .generateDao(typeElement.getAnnotation(GenerateDao.class))
+                .daoCache(typeElement.getAnnotation(DaoCache.class))
+                .fields(Collections.unmodifiableList(fields))
+                .idField(idField)
+                .searchableFields(fields.stream().filter(FieldModel::isSearchable)
+                        .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList)))
+                .searchFields(fields.stream().filter(field -> field.isSearchable() || field.isSearchableAssociation())
+                        .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList)))
+                .nearCache(typeElement.getAnnotation(NearCache.class))
+                .table(typeElement.getAnnotation(Table.class))
+                .cacheable(cacheable != null && cacheable.value() || typeElement.getAnnotation(Cache.class) != null)
+                .build();
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.model;
+
+import com.brahma.dao.annotations.Default;
+import com.brahma.dao.utils.AnnotatedFieldUtils;
+import com.squareup.javapoet.TypeName;
+import lombok.Builder;
+import lombok.Getter;
+import org.hibernate.annotations.NaturalId;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.persistence.Column;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Transient;
+import javax.persistence.Version;
+
+/**
+ * Field of an entity class as the generated dao sees it, read once from the element and its annotations.
+ *
+ * @see EntityModel
+ */
+@Getter
+@Builder
+public final class FieldModel {
+    /**
+     * Element of the field.
+     */
+    private final Element element;
+    /**
+     * Name of the field.
+     */
+    private final String name;
+    /**
+     * Type of the field.
+     */
+    private final TypeName type;
+    /**
+     * Getter call of the field, e.g. "getOrderId()".
+     */
+    private final String getter;
+    /**
+     * Name of the setter of the field, e.g. "setOrderId".
+     */
+    private final String setter;
+    /**
+     * Value of the {@linkplain Default} annotation of the field, null if there is none.
+     */
+    private final String defaultValue;
+    /**
+     * True if the default value is the name of an enum constant.
+     */
+    private final boolean enumDefault;
+    /**
+     * True if the field is annotated with @Id {@linkplain Id}.
+     */
+    private final boolean id;
+    /**
+     * True if the field is annotated with @Transient {@linkplain Transient}.
+     */
+    private final boolean transientField;
+    /**
+     * True if the field is part of the natural id {@linkplain NaturalId} of the entity.
+     */
+    private final boolean naturalId;
+    /**
+     * True if the column of the field is unique {@linkplain Column#unique()}.
+     */
+    private final boolean unique;
+    /**
+     * Kind of association the field is mapped with.
+     */
+    private final AssociationKind associationKind;
+    /**
+     * True if the generated search methods filter on the field itself {@linkplain
+     * AnnotatedFieldUtils#isSearchable(Element)}.
+     */
+    private final boolean searchable;
+    /**
+     * True if the generated search methods filter on the foreign key id of the association, a foreign key
+     * association whose associated entity has an @Id {@linkplain AnnotatedFieldUtils#getAssociationIdField(Element)}.
+     */
+    private final boolean searchableAssociation;
+    /**
+     * True if the field is a @ManyToOne {@linkplain javax.persistence.ManyToOne} or owning @OneToOne {@linkplain
+     * javax.persistence.OneToOne} association, whose foreign key is a column of the entity table.
+     */
+    private final boolean foreignKeyAssociation;
+    /**
+     * Field annotated with @Id {@linkplain Id} of the associated entity of a foreign key association, null otherwise.
+     */
+    private final FieldModel associationIdField;
+    /**
+     * True if the field is mapped to the table: neither @Transient {@linkplain Transient} nor a static or transient
+     * field.
+     */
+    private final boolean persistent;
+    /**
+     * Getter chain reading the searched value from an example object, e.g. "getParent().getId()" for an association.
+     */
+    private final String searchGetter;
+    /**
+     * Attribute path compared by the search restrictions, e.g. "parent.id" for an association.
+     */
+    private final String searchPath;
+    /**
+     * Column of the field as written in the mapping, the foreign key column for a foreign key association.
+     */
+    private final String columnName;
+    /**
+     * True if the foreign key column of the field is unique {@linkplain JoinColumn#unique()}.
+     */
+    private final boolean uniqueJoinColumn;
+    /**
+     * True if the field holds text {@linkplain AnnotatedFieldUtils#isText(Element)}.
+     */
+    private final boolean text;
+    /**
+     * True if the values of the field are ordered {@linkplain AnnotatedFieldUtils#isRangeComparable(Element)}.
+     */
+    private final boolean rangeComparable;
+    /**
+     * True if the field is the optimistic lock {@linkplain Version} of the entity.
+     */
+    private final boolean version;
+    /**
+     * True if the value of the field is generated {@linkplain GeneratedValue}.
+     */
+    private final boolean generatedValue;
+    /**
+     * How an enum field is stored {@linkplain Enumerated}, null if the field is not an enum.
+     */
+    private final EnumType enumType;
+    /**
+     * Value of the {@linkplain Temporal} annotation of the field, null if there is none.
+     */
+    private final TemporalType temporalType;
+
+    /**
+     * @param field Field of the entity class
+     * @return Returns the model of the field.
+     */
+    public static FieldModel of(final Element field) {
+        String name = field.getSimpleName().toString();
+        String getter = AnnotatedFieldUtils.getMethod(field);
+        FieldModelBuilder builder = builder()
+                .element(field)
+                .name(name)
+                .type(TypeName.get(field.asType()))
+                .getter(getter)
+                .setter(AnnotatedFieldUtils.setMethod(field))
+                .id(field.getAnnotation(Id.class) != null)
+                .transientField(field.getAnnotation(Transient.class) != null)
+                .naturalId(field.getAnnotation(NaturalId.class) != null)
+                .associationKind(AssociationKind.of(field))
+                .searchable(AnnotatedFieldUtils.isSearchable(field))
+                .persistent(field.getAnnotation(Transient.class) == null && !field.getModifiers().contains(Modifier
+                        .STATIC) && !field.getModifiers().contains(Modifier.TRANSIENT))
+                .searchGetter(getter)
+                .searchPath(name)
+                .columnName(name)
+                .text(AnnotatedFieldUtils.isText(field))
+                .rangeComparable(AnnotatedFieldUtils.isRangeComparable(field))
+                .version(field.getAnnotation(Version.class) != null)
+                .generatedValue(field.getAnnotation(GeneratedValue.class) != null);
+        Default defaultAnnotation = field.getAnnotation(Default.class);
+        if (defaultAnnotation != null) {
+            builder.defaultValue(defaultAnnotation.value())
+                    .enumDefault("java.lang.Enum".equals(AnnotatedFieldUtils.getClassType(field)));
+        }
+        Column column = field.getAnnotation(Column.class);
+        if (column != null) {
+            builder.unique(column.unique());
+            if (!column.name().isEmpty()) {
+                builder.columnName(column.name());
+            }
+        }
+        Temporal temporal = field.getAnnotation(Temporal.class);
+        if (temporal != null) {
+            builder.temporalType(temporal.value());
+        }
+        if (AnnotatedFieldUtils.isEnum(field)) {
+            Enumerated enumerated = field.getAnnotation(Enumerated.class);
+            builder.enumType(EnumType.ORDINAL);
+            if (enumerated != null) {
+                builder.enumType(enumerated.value());
+            }
+        }
+        if (AnnotatedFieldUtils.isForeignKeyAssociation(field)) {
+            addForeignKey(builder, field, name, getter);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads the foreign key of an association field, its column and the id of the associated entity.
+     *
+     * @param builder Builder of the model of the field
+     * @param field   Foreign key association field of the entity class
+     * @param name    Name of the field
+     * @param getter  Getter call of the field
+     */
+    private static void addForeignKey(final FieldModelBuilder builder, final Element field, final String name,
+                                      final String getter) {
+        builder.foreignKeyAssociation(true);
+        Element associationId = AnnotatedFieldUtils.getAssociationIdField(field);
+        FieldModel associationIdField = null;
+        if (associationId != null) {
+            associationIdField = of(associationId);
+            builder.associationIdField(associationIdField)
+                    .searchableAssociation(true)
+                    .searchGetter(getter + "." + associationIdField.getGetter())
+                    .searchPath(name + "." + associationIdField.getName())
+                    .columnName(name + "_" + associationIdField.getColumnName());
+        }
+        JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+        if (joinColumn != null) {
+            builder.uniqueJoinColumn(joinColumn.unique());
+            if (!joinColumn.name().isEmpty()) {
+                builder.columnName(joinColumn.name());
+            }
+        }
+    }
+
+    /**
+     * @return Returns true if the field has a {@linkplain Default} value.
+     */
+    public boolean hasDefault() {
+        return defaultValue != null;
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Model of the entity classes read once per entity by the annotation processor.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+package com.brahma.dao.model;
@@ -18,11 +18,33 @@
 
 package com.brahma.dao.processor;
 
+import com.brahma.dao.annotations.DaoCache;
+import com.brahma.dao.annotations.FetchPlan;
 import com.brahma.dao.annotations.GenerateDao;
-import com.brahma.dao.utils.AnnotatedClassUtils;
+import com.brahma.dao.annotations.NearCache;
+import com.brahma.dao.annotations.Projection;
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+import com.brahma.dao.utils.CreateAggregateUtils;
+import com.brahma.dao.utils.CreateAsyncUtils;
+import com.brahma.dao.utils.CreateBulkUtils;
+import com.brahma.dao.utils.CreateCriteriaUtils;
 import com.brahma.dao.utils.CreateDaoUtils;
+import com.brahma.dao.utils.CreateFetchPlanUtils;
+import com.brahma.dao.utils.CreateHqlUtils;
+import com.brahma.dao.utils.CreateMetricsUtils;
+import com.brahma.dao.utils.CreateNaturalIdUtils;
+import com.brahma.dao.utils.CreateNearCacheUtils;
+import com.brahma.dao.utils.CreateProjectionUtils;
+import com.brahma.dao.utils.CreateScanUtils;
+import com.brahma.dao.utils.CreateSlowQueryUtils;
+import com.brahma.dao.utils.CreateStreamUtils;
+import com.brahma.dao.utils.CreateUpsertUtils;
+import com.brahma.dao.utils.IndexAdvisoryUtils;
+import com.brahma.dao.utils.MessagingUtils;
 import com.google.auto.service.AutoService;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
@@ -40,9 +62,15 @@ import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Elements;
+import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -54,6 +82,31 @@ import java.util.Set;
  */
 @AutoService(Processor.class)
 public final class DaoProcessor extends AbstractProcessor {
+    /**
+     * Processor option selecting what happens to searchable columns without a covering index: "warn" (default)
+     * reports a warning, "error" fails the build and "off" skips the check.
+     *
+     * @see IndexAdvisoryUtils
+     */
+    public static final String INDEX_ADVISORY_OPTION = "brahma.dao.indexAdvisory";
+    /**
+     * Class output directory of the index advisory reports. Every entity with searchable columns without a covering
+     * index gets its own report, named after the qualified name of the entity class and listing the columns as a JSON
+     * array, so that each report only depends on its entity.
+     */
+    public static final String INDEX_ADVISORY_REPORT_DIRECTORY = "META-INF/brahma-dao/index-advisory/";
+    /**
+     * Value of {@linkplain #INDEX_ADVISORY_OPTION} reporting unindexed columns as warnings.
+     */
+    private static final String INDEX_ADVISORY_WARN = "warn";
+    /**
+     * Value of {@linkplain #INDEX_ADVISORY_OPTION} reporting unindexed columns as errors.
+     */
+    private static final String INDEX_ADVISORY_ERROR = "error";
+    /**
+     * Value of {@linkplain #INDEX_ADVISORY_OPTION} skipping the check.
+     */
+    private static final String INDEX_ADVISORY_OFF = "off";
     /**
      * A utils class to fetch details about the annotated element.
      *
@@ -68,14 +121,25 @@ public final class DaoProcessor extends AbstractProcessor {
      * Used to report errors, warnings, and other notices.
      */
     private Messager messager;
+    /**
+     * Value of the {@linkplain #INDEX_ADVISORY_OPTION} processor option.
+     */
+    private String indexAdvisory;
 
     @Override
     public Set<String> getSupportedAnnotationTypes() {
         Set<String> annotations = new LinkedHashSet<>();
         annotations.add(GenerateDao.class.getCanonicalName());
+        annotations.add(DaoCache.class.getCanonicalName());
+        annotations.add(NearCache.class.getCanonicalName());
         return annotations;
     }
 
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(INDEX_ADVISORY_OPTION);
+    }
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         return SourceVersion.RELEASE_8;
@@ -89,17 +153,25 @@ public final class DaoProcessor extends AbstractProcessor {
 
     /**
      * Generates java files with dao classes. {@linkplain #generateDaoClasses(Set)} (RoundEnvironment)}
+     * <p>
+     * Every generated file has the entity class as its only originating element, which lets incremental builds
+     * regenerate and recompile only the files of the entities which changed, see
+     * "META-INF/gradle/incremental.annotation.processors".
      *
      * @param generatedDaoClass Java class to be generated
      * @param packageName       package of the entity class annotated with @GenerateDao and dao class is generated in
      *                          the same package
+     * @param annotatedElement  Element of the entity class the java class is generated from
      */
-    private void generateJavaFile(final TypeSpec generatedDaoClass, final String packageName) {
-        JavaFile javaFile = JavaFile.builder(packageName, generatedDaoClass).build();
+    private void generateJavaFile(final TypeSpec generatedDaoClass, final String packageName,
+                                  final Element annotatedElement) {
+        JavaFile javaFile = JavaFile.builder(packageName, generatedDaoClass.toBuilder()
+                .addOriginatingElement(annotatedElement).build()).build();
         try {
             javaFile.writeTo(filer);
         } catch (IOException e) {
-
+            MessagingUtils.error(messager, annotatedElement, "%s could not be written: %s", generatedDaoClass.name,
+                    e.getMessage());
         }
     }
 
@@ -129,42 +201,124 @@ public final class DaoProcessor extends AbstractProcessor {
     private void generateDaoClasses(final Set<Element> daoClasses) {
         for (Element annotatedElement : daoClasses) {
             TypeElement typeElement = (TypeElement) annotatedElement;
-            ClassName entityClass = ClassName.get(AnnotatedClassUtils.getQualifiedClassName(typeElement,
-                    elementUtils), AnnotatedClassUtils
-                    .getSimpleName(typeElement));
-            TypeSpec.Builder generatedDaoClass = TypeSpec.classBuilder("Brahma_" + AnnotatedClassUtils.getSimpleName
-                    (typeElement) + "Dao")
+            EntityModel model = EntityModel.of(typeElement, elementUtils);
+            adviseIndexes(model);
+            validateFields(model);
+            CreateNearCacheUtils.validateNearCache(model, messager);
+            ClassName entityClass = model.getEntityClass();
+            GenerateDao generateDao = model.getGenerateDao();
+            TypeSpec.Builder generatedDaoClass = TypeSpec.classBuilder("Brahma_" + entityClass.simpleName() + "Dao")
                     .addModifiers(Modifier.PUBLIC)
                     .superclass(ParameterizedTypeName.get(ClassName.get(AbstractDAO.class), entityClass));
-            MethodSpec createOrUpdate = CreateDaoUtils.createPersistMethod(typeElement, entityClass,
-                    annotatedElement, messager);
+            MethodSpec applyDefaults = CreateDaoUtils.createApplyDefaultsMethod(model);
+            MethodSpec createOrUpdate = CreateDaoUtils.createPersistMethod(model);
+            MethodSpec createOrUpdateAll = CreateDaoUtils.createPersistAllMethod(model);
+            MethodSpec insertAll = CreateDaoUtils.createInsertAllMethod(entityClass);
             MethodSpec constructor = CreateDaoUtils.createConstructor();
-            MethodSpec createSearchQueryMethod = CreateDaoUtils.createGetSearchQueryMethod(
-                    entityClass);
             MethodSpec uniqueResult = CreateDaoUtils.createUniqueResultMethod(entityClass);
-            MethodSpec createGetById = CreateDaoUtils.createGetByIdMethod(entityClass, annotatedElement,
-                    typeElement, messager);
+            MethodSpec createGetById = CreateDaoUtils.createGetByIdMethod(model, messager);
             MethodSpec searchMethod = CreateDaoUtils.createSearchMethod(entityClass);
-            MethodSpec addToPredicateListMethod = CreateDaoUtils.addToPredicateListMethod(annotatedElement,
-                    messager, entityClass);
-            generatedDaoClass.addMethod(constructor)
+            MethodSpec searchReadOnlyMethod = CreateDaoUtils.createSearchReadOnlyMethod(entityClass);
+            boolean slowQueryLog = generateDao.slowQueryLog();
+            if (slowQueryLog) {
+                searchMethod = CreateSlowQueryUtils.createSearchMethod(entityClass);
+                searchReadOnlyMethod = CreateSlowQueryUtils.createSearchReadOnlyMethod(entityClass);
+            }
+            MethodSpec streamMethod = CreateStreamUtils.createStreamMethod(entityClass);
+            MethodSpec addToPredicateListMethod = CreateDaoUtils.addToPredicateListMethod(model);
+            generatedDaoClass.addField(CreateDaoUtils.createSessionFactoryField());
+            FieldSpec searchCacheRegion = CreateDaoUtils.createSearchCacheRegionField(model);
+            if (searchCacheRegion != null) {
+                generatedDaoClass.addField(searchCacheRegion);
+            }
+            if (CreateHqlUtils.supportsSearchMask(model)) {
+                generatedDaoClass.addField(CreateHqlUtils.createSearchHqlCacheField());
+            }
+            if (CreateNearCacheUtils.hasNearCache(model)) {
+                generatedDaoClass.addField(CreateNearCacheUtils.createNearCacheField(model));
+            }
+            if (slowQueryLog) {
+                generatedDaoClass.addField(CreateSlowQueryUtils.createSlowQueryLogField());
+            }
+            generatedDaoClass
+                    .addMethod(constructor)
+                    .addMethod(applyDefaults)
                     .addMethod(createOrUpdate)
+                    .addMethod(createOrUpdateAll)
+                    .addMethod(insertAll)
                     .addMethod(createGetById)
+                    .addMethods(createGetByIds(model))
+                    .addMethods(createNaturalIdLookups(model))
                     .addMethod(addToPredicateListMethod)
-                    .addMethod(createSearchQueryMethod)
+                    .addMethods(createGetSearchQuery(model))
                     .addMethod(searchMethod)
-                    .addMethod(uniqueResult);
+                    .addMethod(searchReadOnlyMethod)
+                    .addMethod(uniqueResult)
+                    .addMethod(streamMethod)
+                    .addMethod(CreateAggregateUtils.createGetSelectionQueryMethod(entityClass))
+                    .addMethod(CreateAggregateUtils.createCountMethod(entityClass))
+                    .addMethod(CreateAggregateUtils.createExistsMethod(entityClass))
+                    .addMethods(CreateAggregateUtils.createNumericAggregateMethods(model));
 
-            if (annotatedElement.getAnnotation(GenerateDao.class).supportSearchVariations()) {
-                generateAllSearchVariationsMethods(generatedDaoClass, entityClass);
+            if (CreateNearCacheUtils.hasNearCache(model)) {
+                generatedDaoClass.addMethod(CreateNearCacheUtils.createGetNearCacheMethod(model));
+            }
+            generateBulkMethods(generatedDaoClass, model);
+            generateProjections(generatedDaoClass, model);
+            generateFetchPlans(generatedDaoClass, model);
+            if (slowQueryLog) {
+                generatedDaoClass.addMethod(CreateSlowQueryUtils.createSetSlowQueryLogMethod())
+                        .addMethod(CreateSlowQueryUtils.createGetPredicateFieldsMethod(model))
+                        .addMethod(CreateSlowQueryUtils.createListLoggedMethod(entityClass));
+            }
+            if (generateDao.searchCriteria()) {
+                generateSearchCriteria(generatedDaoClass, model);
+            }
+            if (generateDao.parallelScan()) {
+                generateParallelScan(generatedDaoClass, model);
+            }
+            if (generateDao.upsert() && CreateUpsertUtils.supportsUpsert(model, messager)) {
+                generatedDaoClass.addField(CreateUpsertUtils.createUpsertSqlField())
+                        .addMethod(CreateUpsertUtils.createGetUpsertSqlMethod(model))
+                        .addMethod(CreateUpsertUtils.createBindUpsertMethod(model))
+                        .addMethod(CreateUpsertUtils.createExecuteUpsertMethod(model))
+                        .addMethod(CreateUpsertUtils.createUpsertMethod(model))
+                        .addMethod(CreateUpsertUtils.createUpsertAllMethod(model));
+            }
+            if (generateDao.async()) {
+                generateJavaFile(CreateAsyncUtils.createAsyncDaoClass(entityClass, CreateAsyncUtils
+                        .getAsyncDaoClassName(entityClass), model.getIdField()),
+                        entityClass.packageName(), annotatedElement);
+            }
+
+            if (generateDao.supportSearchVariations()) {
+                generateAllSearchVariationsMethods(generatedDaoClass, model);
+            }
+            TypeSpec daoClass = generatedDaoClass.build();
+            generateJavaFile(daoClass, entityClass.packageName(), annotatedElement);
+            if (generateDao.metrics()) {
+                generateJavaFile(CreateMetricsUtils.createInstrumentedDaoClass(entityClass, daoClass),
+                        entityClass.packageName(), annotatedElement);
             }
-            generateJavaFile(generatedDaoClass.build(), AnnotatedClassUtils.getQualifiedClassName(typeElement,
-                    elementUtils));
 
         }
 
     }
 
+    /**
+     * Reports the fields of the entity the generated dao can not handle.
+     *
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao}
+     */
+    private void validateFields(final EntityModel model) {
+        for (FieldModel field : model.getFields()) {
+            if (field.getType().isPrimitive()) {
+                MessagingUtils.error(messager, field.getElement(), "Primitive types are not supported while using "
+                        + "@GenerateDao");
+            }
+        }
+    }
+
     /**
      * Generates search methods with variations. These methods are only generated when {@linkplain
      * GenerateDao#supportSearchVariations()} is true.
@@ -175,32 +329,281 @@ public final class DaoProcessor extends AbstractProcessor {
      * </code></pre>
      *
      * @param generatedDaoClass Java class needs to be generated
-     * @param entityClass       Entity class annotated with {@linkplain GenerateDao}
+     * @param model             Model of the entity class annotated with {@linkplain GenerateDao}
      * @see "/testfiles/generatedao_input1.txt"
      * @see "/testfiles/generatedao_output1.txt"
      */
-    private void generateAllSearchVariationsMethods(final TypeSpec.Builder generatedDaoClass, final ClassName
-            entityClass) {
-        MethodSpec createSearchQueryMethodWithParams = CreateDaoUtils.createGetSearchQueryMethodWithParams
-                (entityClass);
+    private void generateAllSearchVariationsMethods(final TypeSpec.Builder generatedDaoClass, final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        FieldModel idField = model.getIdField();
+        String idAttribute = idField.getName();
+        MethodSpec createSearchQueryMethodWithParams = CreateDaoUtils.createGetSearchQueryMethodWithParams(model,
+                idAttribute);
         MethodSpec searchMethodWithParams = CreateDaoUtils.createSearchMethodWithParams(
                 entityClass);
         MethodSpec searchMethodWithPredicateList = CreateDaoUtils.createSearchMethodWithPredicateList
                 (entityClass);
 
         MethodSpec createSearchQueryWithPredicateList = CreateDaoUtils
-                .createGetSearchQueryMethodWithPredicateList(entityClass);
+                .createGetSearchQueryMethodWithPredicateList(model);
 
         MethodSpec searchMethodWithParamsAndPredicateList = CreateDaoUtils
                 .createSearchMethodWithParamsAndPredicateList(entityClass);
+        if (model.getGenerateDao().slowQueryLog()) {
+            searchMethodWithParams = CreateSlowQueryUtils.createSearchMethodWithParams(entityClass);
+            searchMethodWithPredicateList = CreateSlowQueryUtils.createSearchMethodWithPredicateList(entityClass);
+            searchMethodWithParamsAndPredicateList = CreateSlowQueryUtils
+                    .createSearchMethodWithParamsAndPredicateList(entityClass);
+        }
         MethodSpec createSearchQueryWithParamsAndPredicateList = CreateDaoUtils
-                .createGetSearchQueryWithParamsAndPredicateList(entityClass);
+                .createGetSearchQueryWithParamsAndPredicateList(model, idAttribute);
+        MethodSpec keysetPredicate = CreateDaoUtils.createKeysetPredicateMethod(entityClass, idAttribute);
+        MethodSpec getSortValue = CreateDaoUtils.createGetSortValueMethod(model);
+        MethodSpec getNextCursor = CreateDaoUtils.createNextCursorMethod(entityClass, idField);
+        MethodSpec streamMethodWithParams = CreateStreamUtils.createStreamMethodWithParams(entityClass);
+        MethodSpec publishMethod = CreateStreamUtils.createPublishMethod(entityClass);
         generatedDaoClass.addMethod(createSearchQueryMethodWithParams)
                 .addMethod(createSearchQueryWithPredicateList)
                 .addMethod(createSearchQueryWithParamsAndPredicateList)
                 .addMethod(searchMethodWithParams)
                 .addMethod(searchMethodWithPredicateList)
-                .addMethod(searchMethodWithParamsAndPredicateList).build();
+                .addMethod(searchMethodWithParamsAndPredicateList)
+                .addMethod(keysetPredicate)
+                .addMethod(getSortValue)
+                .addMethod(getNextCursor)
+                .addMethod(streamMethodWithParams)
+                .addMethod(publishMethod).build();
+    }
+
+    /**
+     * Generates "getSearchQuery", backed by cached HQL strings when the searchable fields of the entity fit in the
+     * search mask and by a Criteria query otherwise.
+     *
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao}
+     * @return Returns "getSearchQuery" and the methods it relies on.
+     * @see "/testfiles/generatedao_output1.txt #getSearchQuery"
+     */
+    private List<MethodSpec> createGetSearchQuery(final EntityModel model) {
+        List<MethodSpec> getSearchQuery = new ArrayList<>();
+        if (CreateHqlUtils.supportsSearchMask(model)) {
+            getSearchQuery.add(CreateHqlUtils.createGetSearchMaskMethod(model));
+            getSearchQuery.add(CreateHqlUtils.createGetSearchHqlMethod(model));
+            getSearchQuery.add(CreateHqlUtils.createGetSearchQueryMethod(model));
+        } else {
+            getSearchQuery.add(CreateDaoUtils.createGetSearchQueryMethod(model));
+        }
+        return getSearchQuery;
+    }
+
+    /**
+     * Generates the methods loading many entities by their ids.
+     *
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao}
+     * @return Returns "getByIds" and, for Long or Integer ids, its primitive array overload.
+     * @see "/testfiles/generatedao_output1.txt #getByIds"
+     */
+    private List<MethodSpec> createGetByIds(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        FieldModel idField = model.getIdField();
+        int batchSize = model.getGenerateDao().idBatchSize();
+        if (batchSize < 1) {
+            MessagingUtils.error(messager, model.getTypeElement(), "idBatchSize should be positive, found %s", batchSize);
+        }
+        List<MethodSpec> getByIds = new ArrayList<>();
+        getByIds.add(CreateDaoUtils.createGetByIdsMethod(entityClass, idField, batchSize));
+        MethodSpec getByPrimitiveIds = CreateDaoUtils.createGetByPrimitiveIdsMethod(entityClass, idField);
+        if (getByPrimitiveIds != null) {
+            getByIds.add(getByPrimitiveIds);
+        }
+        return getByIds;
+    }
+
+    /**
+     * Generates the methods looking the entity up by its natural id {@linkplain org.hibernate.annotations.NaturalId}
+     * or by one of its unique columns.
+     *
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao}
+     * @return Returns "getBy&lt;Field&gt;" and "getBy&lt;Field&gt;s" for every lookup field, and "getByNaturalId" for
+     * a natural id of many fields.
+     * @see "/testfiles/generatedao_output11.txt #getByCode"
+     */
+    private List<MethodSpec> createNaturalIdLookups(final EntityModel model) {
+        List<MethodSpec> lookups = new ArrayList<>();
+        if (CreateNaturalIdUtils.getNaturalIdFields(model).size() > 1) {
+            lookups.add(CreateNaturalIdUtils.createGetByNaturalIdMethod(model));
+        }
+        for (FieldModel field : CreateNaturalIdUtils.getLookupFields(model)) {
+            lookups.add(CreateNaturalIdUtils.createGetByFieldMethod(model, field));
+            lookups.add(CreateNaturalIdUtils.createGetByFieldsMethod(model, field, model.getGenerateDao()
+                    .idBatchSize()));
+        }
+        return lookups;
+    }
+
+    /**
+     * Generates the bulk update and delete methods, in a single statement and in chunks of ids.
+     *
+     * @param generatedDaoClass Java class needs to be generated
+     * @param model             Model of the entity class annotated with {@linkplain GenerateDao}
+     * @see "/testfiles/generatedao_output1.txt #updateWhere"
+     */
+    private void generateBulkMethods(final TypeSpec.Builder generatedDaoClass, final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        generatedDaoClass.addMethod(CreateBulkUtils.createSetPatchMethod(model))
+                .addMethod(CreateBulkUtils.createExecuteUpdateWhereMethod(model))
+                .addMethod(CreateBulkUtils.createExecuteDeleteWhereMethod(model))
+                .addMethod(CreateBulkUtils.createGetBulkPredicateListMethod(entityClass))
+                .addMethod(CreateBulkUtils.createUpdateWhereMethod(entityClass))
+                .addMethod(CreateBulkUtils.createDeleteWhereMethod(entityClass))
+                .addMethod(CreateBulkUtils.createUpdateAllMethod(model))
+                .addMethod(CreateBulkUtils.createDeleteAllMethod(model))
+                .addMethod(CreateBulkUtils.createGetChunkIdsMethod(model))
+                .addMethod(CreateBulkUtils.createExecuteInChunksMethod(model))
+                .addMethod(CreateBulkUtils.createChunkedUpdateWhereMethod(entityClass))
+                .addMethod(CreateBulkUtils.createChunkedDeleteWhereMethod(entityClass));
+    }
+
+    /**
+     * Generates an immutable class and a search method for every projection {@linkplain Projection} declared with
+     * {@linkplain GenerateDao#projections()}.
+     *
+     * @param generatedDaoClass Java class needs to be generated
+     * @param model             Model of the entity class annotated with {@linkplain GenerateDao}
+     * @see "/testfiles/generatedao_input8.txt"
+     * @see "/testfiles/generatedao_output8.txt"
+     */
+    private void generateProjections(final TypeSpec.Builder generatedDaoClass, final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        for (Projection projection : model.getGenerateDao().projections()) {
+            if (!CreateProjectionUtils.isValidProjection(model, projection, messager)) {
+                continue;
+            }
+            ClassName projectionClass = CreateProjectionUtils.getProjectionClassName(entityClass, projection);
+            List<FieldModel> projectionFields = CreateProjectionUtils.getProjectionFields(model, projection, messager);
+            generatedDaoClass.addMethod(CreateProjectionUtils.createProjectionSearchMethod(entityClass, projection,
+                    projectionClass, projectionFields));
+            generateJavaFile(CreateProjectionUtils.createProjectionClass(projectionClass, projectionFields),
+                    entityClass.packageName(), model.getTypeElement());
+        }
+    }
+
+    /**
+     * Generates the parallel scan methods of the entity. These are only generated when {@linkplain
+     * GenerateDao#parallelScan()} is true and the @Id of the entity is comparable.
+     *
+     * @param generatedDaoClass Java class needs to be generated
+     * @param model             Model of the entity class annotated with {@linkplain GenerateDao}
+     * @see "/testfiles/generatedao_input13.txt"
+     * @see "/testfiles/generatedao_output13.txt"
+     */
+    private void generateParallelScan(final TypeSpec.Builder generatedDaoClass, final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        FieldModel idField = model.getIdField();
+        if (!CreateScanUtils.supportsParallelScan(idField)) {
+            MessagingUtils.error(messager, model.getTypeElement(), "@GenerateDao(parallelScan = true) needs a comparable "
+                    + "@Id field");
+            return;
+        }
+        generatedDaoClass.addMethod(CreateScanUtils.createGetScanBoundsMethod(entityClass, idField))
+                .addMethod(CreateScanUtils.createGetScanChunkMethod(entityClass, idField))
+                .addMethod(CreateScanUtils.createScanPartitionMethod(entityClass, idField))
+                .addMethod(CreateScanUtils.createParallelScanMethod(entityClass))
+                .addMethod(CreateScanUtils.createParallelScanMethodWithExecutor(entityClass, idField));
+    }
+
+    /**
+     * Generates the criteria class of the entity and the search methods applying it, including the SearchMeta variant
+     * when {@linkplain GenerateDao#supportSearchVariations()} is true. These are only generated when {@linkplain
+     * GenerateDao#searchCriteria()} is true.
+     *
+     * @param generatedDaoClass Java class needs to be generated
+     * @param model             Model of the entity class annotated with {@linkplain GenerateDao}
+     * @see "/testfiles/generatedao_input10.txt"
+     * @see "/testfiles/generatedao_output10.txt"
+     */
+    private void generateSearchCriteria(final TypeSpec.Builder generatedDaoClass, final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        ClassName criteriaClass = CreateCriteriaUtils.getCriteriaClassName(entityClass);
+        generatedDaoClass.addMethod(CreateCriteriaUtils.createGetCriteriaPredicateListMethod(model, criteriaClass))
+                .addMethod(CreateCriteriaUtils.createGetCriteriaSearchQueryMethod(model, criteriaClass))
+                .addMethod(CreateCriteriaUtils.createSearchByCriteriaMethod(entityClass, criteriaClass));
+        if (model.getGenerateDao().supportSearchVariations()) {
+            generatedDaoClass.addMethod(CreateCriteriaUtils.createSearchByCriteriaMethodWithParams(entityClass,
+                    criteriaClass));
+        }
+        generateJavaFile(CreateCriteriaUtils.createCriteriaClass(criteriaClass, model),
+                entityClass.packageName(), model.getTypeElement());
+    }
+
+    /**
+     * Generates the search methods of every fetch plan {@linkplain FetchPlan} declared with {@linkplain
+     * GenerateDao#fetchPlans()}, including the SearchMeta variants when {@linkplain
+     * GenerateDao#supportSearchVariations()} is true.
+     *
+     * @param generatedDaoClass Java class needs to be generated
+     * @param model             Model of the entity class annotated with {@linkplain GenerateDao}
+     * @see "/testfiles/generatedao_input9.txt"
+     * @see "/testfiles/generatedao_output9.txt"
+     */
+    private void generateFetchPlans(final TypeSpec.Builder generatedDaoClass, final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        GenerateDao generateDao = model.getGenerateDao();
+        for (FetchPlan fetchPlan : generateDao.fetchPlans()) {
+            if (!CreateFetchPlanUtils.isValidFetchPlan(model, fetchPlan, messager)) {
+                continue;
+            }
+            generatedDaoClass.addMethod(CreateFetchPlanUtils.createFetchGraphMethod(entityClass, fetchPlan))
+                    .addMethod(CreateFetchPlanUtils.createFetchPlanSearchMethod(entityClass, fetchPlan));
+            if (generateDao.supportSearchVariations()) {
+                generatedDaoClass.addMethod(CreateFetchPlanUtils.createFetchPlanSearchMethodWithParams(entityClass,
+                        fetchPlan));
+            }
+        }
+    }
+
+    /**
+     * Reports the searchable columns of the entity without a covering index, as warnings or as errors depending on
+     * the {@linkplain #INDEX_ADVISORY_OPTION} processor option, and writes them to the index advisory report of the
+     * entity in {@linkplain #INDEX_ADVISORY_REPORT_DIRECTORY}.
+     *
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao}
+     * @see IndexAdvisoryUtils
+     */
+    private void adviseIndexes(final EntityModel model) {
+        if (INDEX_ADVISORY_OFF.equals(indexAdvisory)) {
+            return;
+        }
+        List<String> indexAdvisoryReport = new ArrayList<>();
+        for (FieldModel field : IndexAdvisoryUtils.getUnindexedFields(model)) {
+            String message = "Column %s is searched by the generated dao but no index covers it, add it to "
+                    + "@Table(indexes) or set -A" + INDEX_ADVISORY_OPTION + "=" + INDEX_ADVISORY_OFF;
+            if (INDEX_ADVISORY_ERROR.equals(indexAdvisory)) {
+                MessagingUtils.error(messager, field.getElement(), message, field.getColumnName());
+            } else {
+                MessagingUtils.warning(messager, field.getElement(), message, field.getColumnName());
+            }
+            indexAdvisoryReport.add(IndexAdvisoryUtils.createReportEntry(model, field));
+        }
+        if (!indexAdvisoryReport.isEmpty()) {
+            writeIndexAdvisoryReport(model.getTypeElement(), indexAdvisoryReport);
+        }
+    }
+
+    /**
+     * Writes the index advisory report of the entity, named after the qualified name of the entity class.
+     *
+     * @param annotatedElement    Element of the entity class
+     * @param indexAdvisoryReport Entries of the report, one per unindexed column
+     */
+    private void writeIndexAdvisoryReport(final Element annotatedElement, final List<String> indexAdvisoryReport) {
+        String report = INDEX_ADVISORY_REPORT_DIRECTORY + ((TypeElement) annotatedElement).getQualifiedName() + ".json";
+        try (Writer writer = filer.createResource(StandardLocation.CLASS_OUTPUT, "", report, annotatedElement)
+                .openWriter()) {
+            writer.write("[" + String.join(",\n", indexAdvisoryReport) + "]\n");
+        } catch (IOException e) {
+            MessagingUtils.warning(messager, annotatedElement, "Index advisory report could not be written: %s",
+                    e.getMessage());
+        }
     }
 
     @Override
@@ -209,6 +612,12 @@ public final class DaoProcessor extends AbstractProcessor {
         elementUtils = processingEnv.getElementUtils();
         filer = processingEnv.getFiler();
         messager = processingEnv.getMessager();
+        indexAdvisory = processingEnv.getOptions().getOrDefault(INDEX_ADVISORY_OPTION, INDEX_ADVISORY_WARN);
+        if (!Arrays.asList(INDEX_ADVISORY_WARN, INDEX_ADVISORY_ERROR, INDEX_ADVISORY_OFF).contains(indexAdvisory)) {
+            MessagingUtils.warning(messager, null, "Unknown value %s of -A%s, using %s", indexAdvisory,
+                    INDEX_ADVISORY_OPTION, INDEX_ADVISORY_WARN);
+            indexAdvisory = INDEX_ADVISORY_WARN;
+        }
     }
 
 }
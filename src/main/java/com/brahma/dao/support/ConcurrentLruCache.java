@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache used as the near cache of the generated "getById" {@linkplain
+ * com.brahma.dao.annotations.NearCache}. Entries expire a fixed time after they are stored and, once the cache is
+ * full, the least recently used entries are evicted with the CLOCK approximation of LRU: entries are queued in
+ * insertion order and an entry read since it was last considered gets a second chance instead of being evicted.
+ * <p>
+ * Reads and writes only go through a {@linkplain ConcurrentHashMap} and a lock free queue, no global lock is taken.
+ * Hit, miss and eviction counters are kept to size the cache.
+ *
+ * @param <K> key of the entries, the id of the entity
+ * @param <V> value of the entries, the entity
+ * @see "/testfiles/generatedao_output7.txt #getById"
+ */
+public final class ConcurrentLruCache<K, V> {
+    /**
+     * Maximum number of queued entries looked at by a single eviction, bounding the work of a write.
+     */
+    private static final int MAX_EVICTION_SCAN = 64;
+    /**
+     * Number of queued entries allowed per cached entry before stale queued entries are dropped.
+     */
+    private static final int MAX_QUEUED_PER_ENTRY = 2;
+    /**
+     * Entries of the cache.
+     */
+    private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    /**
+     * Entries in insertion order, the clock hand of the eviction. Entries invalidated, replaced or cleared stay
+     * queued until the hand reaches them.
+     */
+    private final Queue<Entry<K, V>> clock = new ConcurrentLinkedQueue<>();
+    /**
+     * Number of queued entries, the size of a {@linkplain ConcurrentLinkedQueue} being costly to compute.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+    /**
+     * Number of lookups served from the cache.
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * Number of lookups not found or expired in the cache.
+     */
+    private final LongAdder misses = new LongAdder();
+    /**
+     * Number of entries evicted because the cache was full or the entry expired.
+     */
+    private final LongAdder evictions = new LongAdder();
+    /**
+     * Maximum number of entries.
+     */
+    private final int maxSize;
+    /**
+     * Time to live of an entry in nanoseconds.
+     */
+    private final long ttlNanos;
+
+    /**
+     * @param capacity   maximum number of entries, positive
+     * @param timeToLive time to live of an entry, positive
+     * @param unit       unit of the time to live
+     */
+    public ConcurrentLruCache(final int capacity, final long timeToLive, final TimeUnit unit) {
+        if (capacity < 1 || timeToLive < 1) {
+            throw new IllegalArgumentException("capacity and timeToLive should be positive, found " + capacity + " and "
+                    + timeToLive);
+        }
+        this.maxSize = capacity;
+        this.ttlNanos = unit.toNanos(timeToLive);
+    }
+
+    /**
+     * @param key key of the entry
+     * @return Returns the cached value, null if there is none or it has expired.
+     */
+    public V get(final K key) {
+        Entry<K, V> entry = null;
+        if (key != null) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAt >= ttlNanos) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        entry.referenced = true;
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Stores a value, evicting the least recently used entries if the cache is full.
+     *
+     * @param key   key of the entry
+     * @param value value of the entry
+     */
+    public void put(final K key, final V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        Entry<K, V> entry = new Entry<>(key, value, System.nanoTime());
+        entries.put(key, entry);
+        clock.offer(entry);
+        queued.incrementAndGet();
+        if (needsEviction()) {
+            evict();
+        }
+    }
+
+    /**
+     * @param key key of the entry to drop, typically the id of an entity which has just been written
+     */
+    public void invalidate(final K key) {
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Drops all the entries, typically after a bulk statement whose rows are unknown.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return Returns the number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Returns the number of lookups served from the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Returns the number of lookups not found or expired in the cache.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Returns the number of entries evicted because the cache was full or the entry expired.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Returns true if the cache is over its maximum size or too many stale entries are queued.
+     */
+    private boolean needsEviction() {
+        return entries.size() > maxSize || queued.get() > MAX_QUEUED_PER_ENTRY * maxSize;
+    }
+
+    /**
+     * Advances the clock hand until the cache is back to its maximum size. Stale queued entries are dropped and
+     * referenced ones are given a second chance.
+     */
+    private void evict() {
+        for (int scanned = 0; scanned < MAX_EVICTION_SCAN && needsEviction(); scanned++) {
+            Entry<K, V> entry = clock.poll();
+            if (entry == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.get(entry.key) != entry) {
+                continue;
+            }
+            if (entries.size() > maxSize && !entry.referenced) {
+                if (entries.remove(entry.key, entry)) {
+                    evictions.increment();
+                }
+            } else {
+                entry.referenced = false;
+                clock.offer(entry);
+                queued.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Cached value along with its eviction state.
+     *
+     * @param <K> key of the entry
+     * @param <V> value of the entry
+     */
+    private static final class Entry<K, V> {
+        /**
+         * Key of the entry.
+         */
+        private final K key;
+        /**
+         * Cached value.
+         */
+        private final V value;
+        /**
+         * Time the entry was stored at, from {@linkplain System#nanoTime()}.
+         */
+        private final long storedAt;
+        /**
+         * True when the entry has been read since the clock hand last passed it.
+         */
+        private volatile boolean referenced;
+
+        /**
+         * @param entryKey   key of the entry
+         * @param entryValue cached value
+         * @param time       time the entry is stored at
+         */
+        private Entry(final K entryKey, final V entryValue, final long time) {
+            this.key = entryKey;
+            this.value = entryValue;
+            this.storedAt = time;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the generated async dao classes. Every task of an async dao blocks on JDBC for its whole duration, so
+ * its executor should either be bounded, ideally by the size of the connection pool, or use virtual threads which do
+ * not pin a platform thread while blocked.
+ *
+ * @see "/testfiles/generatedao_output12_async.txt"
+ */
+public final class DaoExecutors {
+    /**
+     * Seconds an idle thread of a bounded executor is kept.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    /**
+     *
+     */
+    private DaoExecutors() {
+
+    }
+
+    /**
+     * @param threads       maximum number of tasks running at the same time
+     * @param queueCapacity maximum number of tasks waiting for a thread, further tasks are rejected
+     * @return Returns an executor of daemon threads, idle threads being released after a minute.
+     */
+    public static ExecutorService newBoundedExecutor(final int threads, final int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new DaemonThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @param fallbackThreads number of threads of the bounded executor used when virtual threads are not available
+     * @return Returns an executor starting a virtual thread per task when the runtime supports them (Java 21 and
+     * later), a bounded executor with an unbounded queue otherwise.
+     */
+    public static ExecutorService newVirtualThreadExecutor(final int fallbackThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return newBoundedExecutor(fallbackThreads, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Creates the daemon threads of the bounded executors, so they never keep the JVM alive.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        /**
+         * Number of threads created by all the bounded executors.
+         */
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, "brahma-dao-async-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Looks into the persistence context of a session, so that the dao only detaches the entities it attached itself and
+ * never an instance the caller already had managed, along with its unflushed changes.
+ *
+ * @see "/testfiles/generatedao_output7.txt #getById"
+ */
+public final class ManagedEntities {
+    /**
+     *
+     */
+    private ManagedEntities() {
+
+    }
+
+    /**
+     * @param session     session of the dao
+     * @param entityClass entity class
+     * @param id          id of the entity
+     * @return Returns true if an entity of the class with the id is managed by the session, without loading it.
+     */
+    public static boolean contains(final Session session, final Class<?> entityClass, final Object id) {
+        SharedSessionContractImplementor implementor = (SharedSessionContractImplementor) session;
+        EntityPersister persister = implementor.getFactory().getMetamodel().entityPersister(entityClass);
+        return implementor.getPersistenceContext().getEntity(implementor.generateEntityKey((Serializable) id,
+                persister)) != null;
+    }
+
+    /**
+     * @param session session of the dao
+     * @return Returns the entities managed by the session, compared by identity as the session guarantees a single
+     * instance per row.
+     */
+    public static Set<Object> snapshot(final Session session) {
+        Set<Object> managed = Collections.newSetFromMap(new IdentityHashMap<>());
+        managed.addAll(((SharedSessionContractImplementor) session).getPersistenceContext().getEntitiesByKey()
+                .values());
+        return managed;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+import org.hibernate.SessionFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the partitions of a parallel scan on an executor, each one in its own read only session and transaction
+ * {@linkplain SessionTasks}, and waits for all of them. A partition is the range of ids from its lower bound,
+ * inclusive, to the lower bound of the next partition, exclusive, the last partition being open ended.
+ *
+ * @see "/testfiles/generatedao_output13.txt #parallelScan"
+ */
+public final class ParallelScan {
+    /**
+     *
+     */
+    private ParallelScan() {
+
+    }
+
+    /**
+     * @param sessionFactory session factory of the dao class, configured with the "managed" current session context
+     * @param bounds         lower bounds of the partitions, in ascending order
+     * @param executor       executor running the partitions
+     * @param partitionScan  scan of one partition, given its lower bound and its upper bound, null for the last one
+     * @param <I>            type of the ids of the entity
+     */
+    public static <I> void run(final SessionFactory sessionFactory, final List<I> bounds, final Executor executor,
+                               final PartitionScan<I> partitionScan) {
+        CompletableFuture<?>[] scans = new CompletableFuture<?>[bounds.size()];
+        for (int i = 0; i < bounds.size(); i++) {
+            I lower = bounds.get(i);
+            I upper = null;
+            if (i + 1 < bounds.size()) {
+                upper = bounds.get(i + 1);
+            }
+            I partitionUpper = upper;
+            scans[i] = CompletableFuture.runAsync(() -> SessionTasks.call(sessionFactory, true, () -> {
+                partitionScan.scan(lower, partitionUpper);
+                return null;
+            }), executor);
+        }
+        try {
+            CompletableFuture.allOf(scans).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Scan of one partition of the ids.
+     *
+     * @param <I> type of the ids of the entity
+     */
+    @FunctionalInterface
+    public interface PartitionScan<I> {
+        /**
+         * @param lower lower bound of the partition, inclusive
+         * @param upper upper bound of the partition, exclusive, null for the last partition
+         */
+        void scan(I lower, I upper);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+/**
+ * Publisher, subscriber and subscription of a backpressured stream of rows. The interfaces have the shape of
+ * java.util.concurrent.Flow of Java 9 and of Reactive Streams, which a Java 8 library can not depend on, so
+ * adapting them to either is a matter of forwarding each method.
+ *
+ * @see ScrollPublisher
+ */
+public final class ResultFlow {
+    /**
+     *
+     */
+    private ResultFlow() {
+
+    }
+
+    /**
+     * Produces rows for its subscribers, never more than they requested.
+     *
+     * @param <T> type of the published rows
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+        /**
+         * @param subscriber subscriber receiving a new subscription through {@linkplain Subscriber#onSubscribe(
+         *                   Subscription)}
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * Receives the rows of a publisher, after requesting them through its subscription.
+     *
+     * @param <T> type of the received rows
+     */
+    public interface Subscriber<T> {
+        /**
+         * @param subscription subscription to request rows with, no row is sent before a request
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * @param item next row
+         */
+        void onNext(T item);
+
+        /**
+         * @param throwable failure ending the subscription
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Ends the subscription once all the rows are sent.
+         */
+        void onComplete();
+    }
+
+    /**
+     * Link between a publisher and one of its subscribers.
+     */
+    public interface Subscription {
+        /**
+         * @param n number of additional rows the subscriber is ready to receive, a positive number
+         */
+        void request(long n);
+
+        /**
+         * Stops the rows, the publisher releases its resources.
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the rows of a query from a forward-only cursor, reading rows from the database only as subscribers
+ * request them. Every subscription runs the query in its own read only session, opened on the first request, and
+ * the cursor, the transaction and the session are released once the rows are all sent, on cancel and on failure.
+ * <p>
+ * Rows are read and sent by the thread requesting them, one thread at a time, and every row is evicted from the
+ * session once the next one is read, so the memory used stays flat whatever the number of rows.
+ *
+ * @param <E> entity class of the published rows
+ * @see "/testfiles/generatedao_output1.txt #publish"
+ */
+@RequiredArgsConstructor
+public final class ScrollPublisher<E> implements ResultFlow.Publisher<E> {
+    /**
+     * Session factory of the dao class, configured with the "managed" current session context.
+     */
+    private final SessionFactory sessionFactory;
+    /**
+     * Builds the query of a subscription, called while the session of the subscription is bound to the thread.
+     */
+    private final Supplier<Query<E>> query;
+    /**
+     * Number of rows fetched from the database per round trip.
+     */
+    private final int fetchSize;
+
+    @Override
+    public void subscribe(final ResultFlow.Subscriber<? super E> subscriber) {
+        subscriber.onSubscribe(new ScrollSubscription(subscriber));
+    }
+
+    /**
+     * @param left  rows requested and not sent yet
+     * @param added rows newly requested
+     * @return Returns the rows requested and not sent yet, capped to {@linkplain Long#MAX_VALUE} which stands
+     * for an unbounded demand.
+     */
+    private static long addCapped(final long left, final long added) {
+        long sum = left + added;
+        if (sum < 0) {
+            return Long.MAX_VALUE;
+        }
+        return sum;
+    }
+
+    /**
+     * Subscription reading the rows of its own cursor.
+     */
+    @RequiredArgsConstructor
+    private final class ScrollSubscription implements ResultFlow.Subscription {
+        /**
+         * Subscriber receiving the rows.
+         */
+        private final ResultFlow.Subscriber<? super E> subscriber;
+        /**
+         * Rows requested and not sent yet.
+         */
+        private final AtomicLong requested = new AtomicLong();
+        /**
+         * Number of signals to handle, the thread moving it from zero sends the rows for all the others.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        /**
+         * True once the subscriber cancelled.
+         */
+        private volatile boolean cancelled;
+        /**
+         * Failure caused by the subscriber, sent by the draining thread.
+         */
+        private volatile RuntimeException failure;
+        /**
+         * True once the subscription is over and its resources released.
+         */
+        private boolean done;
+        /**
+         * Session of the subscription, null until the first request.
+         */
+        private Session session;
+        /**
+         * Transaction of the cursor.
+         */
+        private Transaction transaction;
+        /**
+         * Cursor over the rows of the query.
+         */
+        private ScrollableResults results;
+        /**
+         * Last row sent, evicted when the cursor moves on.
+         */
+        private Object current;
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException("Requested rows should be positive, found " + n);
+            } else {
+                requested.accumulateAndGet(n, ScrollPublisher::addCapped);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        /**
+         * Sends the requested rows, or releases the resources once cancelled. Only the thread moving the pending
+         * signals from zero runs the loop, the others only add their signal to it.
+         */
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            if (pending.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!done && failure != null) {
+                    release();
+                    subscriber.onError(failure);
+                }
+                while (!done && !cancelled && requested.get() > 0) {
+                    try {
+                        if (results == null) {
+                            open();
+                        }
+                        if (current != null) {
+                            session.evict(current);
+                            current = null;
+                        }
+                        if (!results.next()) {
+                            release();
+                            subscriber.onComplete();
+                            break;
+                        }
+                        current = results.get(0);
+                    } catch (RuntimeException e) {
+                        release();
+                        subscriber.onError(e);
+                        break;
+                    }
+                    requested.decrementAndGet();
+                    try {
+                        subscriber.onNext((E) current);
+                    } catch (RuntimeException e) {
+                        release();
+                        throw e;
+                    }
+                }
+                if (cancelled) {
+                    release();
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Opens the read only session of the subscription and the cursor of the query.
+         */
+        private void open() {
+            session = sessionFactory.openSession();
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            transaction = session.beginTransaction();
+            results = SessionTasks.callBound(sessionFactory, session, query).setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+        }
+
+        /**
+         * Closes the cursor, ends the transaction and closes the session, once. Nothing is written by the
+         * subscription, so the transaction is rolled back.
+         */
+        private void release() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                if (results != null) {
+                    results.close();
+                }
+                if (transaction != null && transaction.isActive()) {
+                    transaction.rollback();
+                }
+            } finally {
+                if (session != null) {
+                    session.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates a forward-only {@linkplain ScrollableResults} and evicts every entity it loaded from the session once the
+ * next one is requested, so the memory used stays flat whatever the number of rows. Entities the session already
+ * managed when the stream was opened are returned as they are and stay managed, along with their unflushed changes.
+ *
+ * @param <E> entity class of the iterated rows
+ * @see "/testfiles/generatedao_output1.txt #stream"
+ */
+@RequiredArgsConstructor
+public final class ScrollableResultsIterator<E> implements Iterator<E>, AutoCloseable {
+    /**
+     * Session the rows are loaded in.
+     */
+    private final Session session;
+    /**
+     * Cursor over the rows of the query.
+     */
+    private final ScrollableResults results;
+    /**
+     * Entities managed by the session before the stream was opened, never evicted.
+     */
+    private final Set<Object> managed;
+    /**
+     * Last entity returned, evicted when the cursor moves on.
+     */
+    private E current;
+    /**
+     * True when the cursor has been moved for the upcoming call to {@linkplain #next()}.
+     */
+    private boolean advanced;
+    /**
+     * True when the cursor points to a row.
+     */
+    private boolean available;
+    /**
+     * True once the cursor is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Streams the rows of a query. The returned stream holds a database cursor and must be closed.
+     *
+     * @param session   session the query was created in
+     * @param query     query to stream
+     * @param fetchSize number of rows fetched from the database per round trip
+     * @param <E>       entity class of the query
+     * @return Returns a sequential stream over the rows of the query.
+     */
+    public static <E> Stream<E> stream(final Session session, final Query<E> query, final int fetchSize) {
+        ScrollableResults results = query.setFetchSize(fetchSize).scroll(ScrollMode.FORWARD_ONLY);
+        ScrollableResultsIterator<E> iterator = new ScrollableResultsIterator<>(session, results,
+                ManagedEntities.snapshot(session));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED
+                | Spliterator.NONNULL), false).onClose(iterator::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!advanced && !closed) {
+            evictCurrent();
+            available = results.next();
+            advanced = true;
+            if (!available) {
+                close();
+            }
+        }
+        return available && !closed;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+        current = (E) results.get(0);
+        return current;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            evictCurrent();
+            results.close();
+        }
+    }
+
+    /**
+     * Detaches the last returned entity from the session, unless the session managed it before the stream was opened.
+     */
+    private void evictCurrent() {
+        if (current != null && !managed.contains(current) && session.contains(current)) {
+            session.evict(current);
+        }
+        current = null;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+/**
+ * Builds the LIKE patterns of the generated "StartsWith" criteria. The prefix is escaped, so "%" and "_" typed by a
+ * caller match literally, and the pattern only ends with a wildcard, which lets the database use an index on the
+ * column.
+ *
+ * @see "/testfiles/generatedao_output10.txt #getCriteriaPredicateList"
+ */
+public final class SearchPatterns {
+    /**
+     * Escape character of the generated LIKE patterns.
+     */
+    public static final char ESCAPE_CHAR = '\\';
+
+    /**
+     *
+     */
+    private SearchPatterns() {
+
+    }
+
+    /**
+     * @param prefix value the column should start with
+     * @return Returns the LIKE pattern matching the values starting with the prefix, to be used with {@linkplain
+     * #ESCAPE_CHAR}.
+     */
+    public static String startsWith(final String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == ESCAPE_CHAR || c == '%' || c == '_') {
+                pattern.append(ESCAPE_CHAR);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
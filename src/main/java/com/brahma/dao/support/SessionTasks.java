@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.context.internal.ManagedSessionContext;
+
+import javax.transaction.Synchronization;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own session and transaction, the way Dropwizard's {@literal @}UnitOfWork does for a
+ * resource method. The session is bound to the {@linkplain ManagedSessionContext} of the running thread, so the
+ * generated dao classes find it through "currentSession()", and any session bound before is restored afterwards.
+ *
+ * @see "/testfiles/generatedao_output12_async.txt #submit"
+ */
+public final class SessionTasks {
+    /**
+     *
+     */
+    private SessionTasks() {
+
+    }
+
+    /**
+     * @param sessionFactory session factory of the dao classes, configured with the "managed" current session context
+     * @param readOnly       true to load read only entities and never flush, for tasks which only read
+     * @param work           unit of work calling the dao classes
+     * @param <T>            result of the unit of work
+     * @return Returns the result of the unit of work once its transaction is committed. The transaction is rolled
+     * back if the unit of work throws.
+     */
+    public static <T> T call(final SessionFactory sessionFactory, final boolean readOnly, final Supplier<T> work) {
+        Session session = sessionFactory.openSession();
+        try {
+            if (readOnly) {
+                session.setDefaultReadOnly(true);
+                session.setHibernateFlushMode(FlushMode.MANUAL);
+            }
+            Transaction transaction = session.beginTransaction();
+            try {
+                T result = callBound(sessionFactory, session, work);
+                transaction.commit();
+                return result;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * @param sessionFactory session factory of the dao classes, configured with the "managed" current session context
+     * @param session        session to bind to the running thread while the work runs
+     * @param work           work calling the dao classes
+     * @param <T>            result of the work
+     * @return Returns the result of the work. The session bound to the running thread before, if any, is bound again
+     * afterwards.
+     */
+    public static <T> T callBound(final SessionFactory sessionFactory, final Session session, final Supplier<T> work) {
+        Session previous = ManagedSessionContext.unbind(sessionFactory);
+        ManagedSessionContext.bind(session);
+        try {
+            return work.get();
+        } finally {
+            ManagedSessionContext.unbind(sessionFactory);
+            if (previous != null) {
+                ManagedSessionContext.bind(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs an action once the transaction of a session completes, committed or rolled back, or right away when the
+     * session has no active transaction. The generated dao classes invalidate their near cache this way, so a row
+     * read by another session before the write commits does not stay cached.
+     *
+     * @param session session whose transaction is awaited
+     * @param action  action to run
+     * @see "/testfiles/generatedao_output7.txt #createOrUpdate"
+     */
+    public static void afterCompletion(final Session session, final Runnable action) {
+        Transaction transaction = session.getTransaction();
+        if (!transaction.isActive()) {
+            action.run();
+            return;
+        }
+        transaction.registerSynchronization(new AfterCompletion(action));
+    }
+
+    /**
+     * Transaction synchronization running an action after the completion of the transaction.
+     */
+    private static final class AfterCompletion implements Synchronization {
+        /**
+         * Action run after the completion of the transaction.
+         */
+        private final Runnable action;
+
+        /**
+         * @param completionAction action run after the completion of the transaction
+         */
+        private AfterCompletion(final Runnable completionAction) {
+            this.action = completionAction;
+        }
+
+        /**
+         * Nothing to do before the completion of the transaction.
+         */
+        @Override
+        public void beforeCompletion() {
+        }
+
+        /**
+         * @param status status of the completed transaction
+         */
+        @Override
+        public void afterCompletion(final int status) {
+            action.run();
+        }
+    }
+}
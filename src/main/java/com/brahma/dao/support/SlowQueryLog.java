@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+import com.brahma.dao.meta.SearchMeta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs the searches of the generated dao classes which take longer than a threshold. A log line names the entity, the
+ * dao method, the fields of the example which restricted the search, never their values, the sort and limit of the
+ * {@linkplain SearchMeta}, the number of rows and the elapsed time, so the shape of a slow query can be told apart
+ * from the fast ones.
+ * <p>
+ * Searches below the threshold only cost a comparison, nothing is allocated for them.
+ *
+ * @see "/testfiles/generatedao_output15.txt #listLogged"
+ */
+public final class SlowQueryLog {
+    /**
+     * Slow query log which never logs, used by the generated dao classes until one is set.
+     */
+    public static final SlowQueryLog DISABLED = new SlowQueryLog(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    /**
+     * Searches taking this many nanoseconds or more are logged.
+     */
+    private final long thresholdNanos;
+    /**
+     * Logger the slow searches are written to.
+     */
+    private final Logger logger;
+
+    /**
+     * @param threshold searches taking this long or longer are logged
+     * @param unit      unit of the threshold
+     */
+    public SlowQueryLog(final long threshold, final TimeUnit unit) {
+        this(threshold, unit, LoggerFactory.getLogger(SlowQueryLog.class));
+    }
+
+    /**
+     * @param threshold       searches taking this long or longer are logged
+     * @param unit            unit of the threshold
+     * @param slowQueryLogger logger the slow searches are written to, at warn level
+     */
+    public SlowQueryLog(final long threshold, final TimeUnit unit, final Logger slowQueryLogger) {
+        this.thresholdNanos = unit.toNanos(threshold);
+        this.logger = slowQueryLogger;
+    }
+
+    /**
+     * @param elapsedNanos time taken by a search, in nanoseconds
+     * @return Returns true if the search should be logged.
+     */
+    public boolean isSlow(final long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * @param entityClass     entity class searched
+     * @param method          name of the dao method
+     * @param predicateFields fields of the example which restricted the search
+     * @param searchParams    search parameters of the search, null when there are none
+     * @param rows            number of rows returned
+     * @param elapsedNanos    time taken by the search, in nanoseconds
+     */
+    public void log(final Class<?> entityClass, final String method, final List<String> predicateFields,
+                    final SearchMeta searchParams, final int rows, final long elapsedNanos) {
+        String sortBy = null;
+        Object sortType = null;
+        Integer maxResults = null;
+        if (searchParams != null) {
+            sortBy = searchParams.getSortBy();
+            sortType = searchParams.getSortType();
+            maxResults = searchParams.getMaxResults();
+        }
+        logger.warn("Slow query {}.{} took {} ms: predicate fields {}, sort by {} {}, max results {}, {} rows",
+                entityClass.getSimpleName(), method, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), predicateFields,
+                sortBy, sortType, maxResults, rows);
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.support;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.Oracle8iDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.dialect.PostgreSQL95Dialect;
+import org.hibernate.dialect.SQLServerDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.ws.rs.ProcessingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Families of databases the generated "upsert" methods have a single statement insert-or-update for. The dao only
+ * names the properties it binds, the statement is built here for the dialect of the session factory, from the table
+ * and column names of the entity persister, so that they follow the physical naming strategy the session factory is
+ * configured with.
+ *
+ * @see "/testfiles/generatedao_output16.txt #getUpsertSql"
+ */
+public enum UpsertDialect {
+    /**
+     * "insert ... on conflict (key) do update", PostgreSQL 9.5 and later.
+     */
+    POSTGRESQL,
+    /**
+     * "insert ... on duplicate key update", MySQL and MariaDB.
+     */
+    MYSQL,
+    /**
+     * "merge into ... using (select ...)", H2.
+     */
+    H2,
+    /**
+     * "merge into ... with (holdlock) using (select ...);", SQL Server 2008 and later. The range lock held until the
+     * end of the statement keeps two concurrent merges of the same key from both inserting it.
+     */
+    SQL_SERVER,
+    /**
+     * "merge into ... using (select ... from dual)", Oracle 9i and later.
+     */
+    ORACLE;
+
+    /**
+     * @param sessionFactory session factory of the dao
+     * @return Returns the family of the dialect the session factory is configured with.
+     */
+    public static UpsertDialect of(final SessionFactory sessionFactory) {
+        return of(((SessionFactoryImplementor) sessionFactory).getJdbcServices().getDialect());
+    }
+
+    /**
+     * @param dialect Hibernate dialect
+     * @return Returns the family of the dialect.
+     * @throws ProcessingException if no upsert statement is generated for the dialect
+     */
+    public static UpsertDialect of(final Dialect dialect) {
+        if (dialect instanceof PostgreSQL95Dialect) {
+            return POSTGRESQL;
+        }
+        if (dialect instanceof PostgreSQL81Dialect) {
+            throw new ProcessingException("Upsert needs PostgreSQL 9.5 or later, configure PostgreSQL95Dialect "
+                    + "instead of " + dialect.getClass().getName());
+        }
+        if (dialect instanceof MySQLDialect) {
+            return MYSQL;
+        }
+        if (dialect instanceof H2Dialect) {
+            return H2;
+        }
+        if (dialect instanceof SQLServerDialect) {
+            return SQL_SERVER;
+        }
+        if (dialect instanceof Oracle8iDialect) {
+            return ORACLE;
+        }
+        throw new ProcessingException("No upsert statement is generated for the dialect " + dialect.getClass()
+                .getName());
+    }
+
+    /**
+     * @param sessionFactory session factory of the dao
+     * @param entityClass    entity class written by the statement
+     * @param properties     properties of the entity bound by the statement, in binding order
+     * @param keyProperties  properties of the unique key the statement matches rows on
+     * @return Returns the upsert statement of the entity for the dialect of the session factory. Properties outside
+     * the key are updated when a row with the key exists, except the identifier.
+     */
+    public static String createSql(final SessionFactory sessionFactory, final Class<?> entityClass,
+                                   final List<String> properties, final List<String> keyProperties) {
+        EntityPersister persister = ((SessionFactoryImplementor) sessionFactory).getMetamodel()
+                .entityPersister(entityClass);
+        if (!(persister instanceof AbstractEntityPersister)) {
+            throw new ProcessingException("No upsert statement is generated for the persister " + persister
+                    .getClass().getName());
+        }
+        AbstractEntityPersister entityPersister = (AbstractEntityPersister) persister;
+        List<String> columns = getColumnNames(entityPersister, properties);
+        List<String> keys = getColumnNames(entityPersister, keyProperties);
+        List<String> updated = new ArrayList<>(columns);
+        updated.removeAll(keys);
+        updated.removeAll(getColumnNames(entityPersister, Collections.singletonList(entityPersister
+                .getIdentifierPropertyName())));
+        return of(sessionFactory).createSql(entityPersister.getTableName(), columns, keys, updated);
+    }
+
+    /**
+     * @param table   Table of the entity
+     * @param columns Columns of the entity, in binding order
+     * @param keys    Columns of the key
+     * @param updated Columns updated when a row with the key exists
+     * @return Returns the upsert statement of the dialect.
+     */
+    public String createSql(final String table, final List<String> columns, final List<String> keys,
+                            final List<String> updated) {
+        String insert = "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        switch (this) {
+            case POSTGRESQL:
+                return insert + createOnConflictClause(keys, updated);
+            case MYSQL:
+                return insert + createOnDuplicateKeyClause(keys, updated);
+            case SQL_SERVER:
+                return createMergeSql(table + " with (holdlock)", columns, keys, updated, "", ";");
+            case ORACLE:
+                return createMergeSql(table, columns, keys, updated, " from dual", "");
+            default:
+                return createMergeSql(table, columns, keys, updated, "", "");
+        }
+    }
+
+    /**
+     * @param persister  persister of the entity
+     * @param properties properties of the entity
+     * @return Returns the column of every property, the foreign key column for associations.
+     */
+    private static List<String> getColumnNames(final AbstractEntityPersister persister, final List<String> properties) {
+        List<String> columns = new ArrayList<>(properties.size());
+        for (String property : properties) {
+            String[] propertyColumns;
+            if (property.equals(persister.getIdentifierPropertyName())) {
+                propertyColumns = persister.getIdentifierColumnNames();
+            } else {
+                propertyColumns = persister.getPropertyColumnNames(property);
+            }
+            if (propertyColumns.length != 1) {
+                throw new ProcessingException("Upsert needs a single column for " + persister.getEntityName() + "."
+                        + property + ", found " + propertyColumns.length);
+            }
+            columns.add(propertyColumns[0]);
+        }
+        return columns;
+    }
+
+    /**
+     * @param keys    Columns of the key
+     * @param updated Columns updated when a row with the key exists
+     * @return Returns the "on conflict" clause of PostgreSQL.
+     */
+    private static String createOnConflictClause(final List<String> keys, final List<String> updated) {
+        String clause = " on conflict (" + String.join(", ", keys) + ")";
+        if (updated.isEmpty()) {
+            return clause + " do nothing";
+        }
+        return clause + " do update set " + updated.stream().map(column -> column + " = excluded." + column)
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * @param keys    Columns of the key
+     * @param updated Columns updated when a row with the key exists
+     * @return Returns the "on duplicate key update" clause of MySQL, which updates a key column onto itself when there
+     * is nothing else to update.
+     */
+    private static String createOnDuplicateKeyClause(final List<String> keys, final List<String> updated) {
+        if (updated.isEmpty()) {
+            return " on duplicate key update " + keys.get(0) + " = " + keys.get(0);
+        }
+        return " on duplicate key update " + updated.stream().map(column -> column + " = values(" + column + ")")
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * @param target     Table of the entity, with its table hints
+     * @param columns    Columns of the entity, in binding order
+     * @param keys       Columns of the key
+     * @param updated    Columns updated when a row with the key exists
+     * @param from       Clause completing the select of the bound row
+     * @param terminator Terminator required by the dialect after a merge statement
+     * @return Returns the standard "merge" statement.
+     */
+    private static String createMergeSql(final String target, final List<String> columns, final List<String> keys,
+                                         final List<String> updated, final String from, final String terminator) {
+        StringBuilder merge = new StringBuilder("merge into ").append(target).append(" t using (select ")
+                .append(columns.stream().map(column -> "? as " + column).collect(Collectors.joining(", ")))
+                .append(from).append(") s on (")
+                .append(keys.stream().map(column -> "t." + column + " = s." + column)
+                        .collect(Collectors.joining(" and "))).append(")");
+        if (!updated.isEmpty()) {
+            merge.append(" when matched then update set ").append(updated.stream().map(column -> "t." + column
+                    + " = s." + column).collect(Collectors.joining(", ")));
+        }
+        return merge.append(" when not matched then insert (").append(String.join(", ", columns))
+                .append(") values (").append(columns.stream().map(column -> "s." + column)
+                        .collect(Collectors.joining(", "))).append(")").append(terminator).toString();
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Support classes used by the generated dao classes at runtime.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+package com.brahma.dao.support;
@@ -21,7 +21,17 @@ import com.brahma.dao.annotations.Default;
 import com.squareup.javapoet.TypeName;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+import javax.persistence.Transient;
 
 /**
  * Contains utility methods for processing the fields in the annotated element.
@@ -99,5 +109,100 @@ public final class AnnotatedFieldUtils {
         return null;
     }
 
+    /**
+     * @param field Field of the annotated element.
+     * @return Returns true if the field is a column which the generated search methods can filter and sort on.
+     */
+    public static boolean isSearchable(final Element field) {
+        return field.getKind().isField() && field.getAnnotation(Transient.class) == null
+                && field.getAnnotation(OneToMany.class) == null && field.getAnnotation(ManyToOne.class) == null;
+    }
+
+    /**
+     * @param field Field of the annotated element.
+     * @return Returns true if the field is a @ManyToOne {@linkplain ManyToOne} or owning @OneToOne {@linkplain
+     * OneToOne} association, that is an association whose foreign key is a column of the entity table.
+     */
+    public static boolean isForeignKeyAssociation(final Element field) {
+        if (!field.getKind().isField() || field.getAnnotation(Transient.class) != null) {
+            return false;
+        }
+        OneToOne oneToOne = field.getAnnotation(OneToOne.class);
+        return field.getAnnotation(ManyToOne.class) != null || oneToOne != null && oneToOne.mappedBy().isEmpty();
+    }
+
+    /**
+     * @param field Association field of the annotated element.
+     * @return Returns the field annotated with @Id {@linkplain Id} of the associated entity, null if there is none.
+     */
+    public static Element getAssociationIdField(final Element field) {
+        if (field.asType().getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        for (Element associationField : ((DeclaredType) field.asType()).asElement().getEnclosedElements()) {
+            if (associationField.getKind().isField() && associationField.getAnnotation(Id.class) != null) {
+                return associationField;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param field Field of the annotated element.
+     * @return Returns true if the field holds text, which the generated criteria can match on a prefix.
+     */
+    public static boolean isText(final Element field) {
+        return isDeclaredType(field.asType(), String.class.getName());
+    }
+
+    /**
+     * @param field Field of the annotated element.
+     * @return Returns true if the values of the field are ordered, which the generated criteria can restrict to a
+     * range. Enums and booleans are left out as their order carries no meaning for a search.
+     */
+    public static boolean isRangeComparable(final Element field) {
+        if (field.asType().getKind() != TypeKind.DECLARED || isDeclaredType(field.asType(), Boolean.class.getName())) {
+            return false;
+        }
+        TypeElement type = (TypeElement) ((DeclaredType) field.asType()).asElement();
+        return type.getKind() != ElementKind.ENUM && isComparable(type);
+    }
+
+    /**
+     * @param field Field of the annotated element.
+     * @return Returns true if the field holds an enum.
+     */
+    public static boolean isEnum(final Element field) {
+        return field.asType().getKind() == TypeKind.DECLARED
+                && ((DeclaredType) field.asType()).asElement().getKind() == ElementKind.ENUM;
+    }
+
+    /**
+     * @param type Type of a field.
+     * @return Returns true if the type, one of its super classes or one of its interfaces implements {@linkplain
+     * Comparable}.
+     */
+    private static boolean isComparable(final TypeElement type) {
+        if (type.getQualifiedName().contentEquals(Comparable.class.getName())) {
+            return true;
+        }
+        for (TypeMirror supertype : type.getInterfaces()) {
+            if (isComparable((TypeElement) ((DeclaredType) supertype).asElement())) {
+                return true;
+            }
+        }
+        return type.getSuperclass().getKind() == TypeKind.DECLARED
+                && isComparable((TypeElement) ((DeclaredType) type.getSuperclass()).asElement());
+    }
+
+    /**
+     * @param type          Type of a field.
+     * @param qualifiedName Qualified name of a class.
+     * @return Returns true if the type is the class.
+     */
+    private static boolean isDeclaredType(final TypeMirror type, final String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED && ((TypeElement) ((DeclaredType) type).asElement())
+                .getQualifiedName().contentEquals(qualifiedName);
+    }
 
 }
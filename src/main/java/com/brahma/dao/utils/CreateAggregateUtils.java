@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeVariableName;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import javax.lang.model.element.Modifier;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Generates the aggregate methods of the dao class. Aggregate methods reuse the predicates of "getPredicateList" and
+ * let the database compute a scalar instead of loading the matching entities.
+ */
+public final class CreateAggregateUtils {
+
+    /**
+     *
+     */
+    private CreateAggregateUtils() {
+
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates method which returns a query selecting a single selection, such as an aggregate or a
+     * projection, over the rows matching the search query.
+     * @see "/testfiles/generatedao_output7.txt #getSelectionQuery"
+     */
+    public static MethodSpec createGetSelectionQueryMethod(final ClassName entityClass) {
+        TypeVariableName resultType = TypeVariableName.get("T");
+        return MethodSpec.methodBuilder("getSelectionQuery")
+                .addModifiers(Modifier.PROTECTED)
+                .addTypeVariable(resultType)
+                .returns(ParameterizedTypeName.get(ClassName.get(Query.class), resultType))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Class.class), resultType),
+                        "resultClass").build())
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(BiFunction.class),
+                        ClassName.get(CriteriaBuilder.class), ParameterizedTypeName.get(ClassName.get(Root.class),
+                                entityClass), ParameterizedTypeName.get(ClassName.get(Selection.class), resultType)),
+                        "selection").build())
+                .addStatement("$T session = this.currentSession()", Session.class)
+                .addStatement("$T criteriaBuilder = $N.getCriteriaBuilder()", CriteriaBuilder.class, "session")
+                .addStatement("$T<$T> query = $N.createQuery($N)", CriteriaQuery.class, resultType,
+                        "criteriaBuilder", "resultClass")
+                .addStatement("$T<$T> from = $N.from($T.class)", Root.class, entityClass, "query", entityClass)
+                .addStatement("$T<$T> searchRestrictions = getPredicateList($N,$N,$N)", List.class, Predicate.class,
+                        "searchQuery", "criteriaBuilder", "from")
+                .addStatement("$N.select($N.apply($N, $N)).where($N.toArray(new $T[$N.size()]))", "query",
+                        "selection", "criteriaBuilder", "from", "searchRestrictions", Predicate.class,
+                        "searchRestrictions")
+                .addStatement("return $N.createQuery($N)", "session", "query")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates method which counts the rows matching the search query with "SELECT COUNT(*)".
+     * @see "/testfiles/generatedao_output7.txt #count"
+     */
+    public static MethodSpec createCountMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("count")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(Long.class)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("return getSelectionQuery($N, $T.class, (criteriaBuilder, from) -> criteriaBuilder"
+                        + ".count(from)).uniqueResult()", "searchQuery", Long.class)
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates method which checks if any row matches the search query with "SELECT 1 ... LIMIT 1".
+     * @see "/testfiles/generatedao_output7.txt #exists"
+     */
+    public static MethodSpec createExistsMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("exists")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.BOOLEAN)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("return getSelectionQuery($N, $T.class, (criteriaBuilder, from) -> criteriaBuilder"
+                        + ".literal(1)).setMaxResults(1).uniqueResult() != null", "searchQuery", Integer.class)
+                .build();
+    }
+
+    /**
+     * Generates "min", "max" and "sum" methods for every numeric column of the entity. The @Id {@linkplain
+     * javax.persistence.Id} column only gets "min" and "max".
+     *
+     * @param model Model of the entity class
+     * @return Returns the generated aggregate methods.
+     * @see "/testfiles/generatedao_output7.txt #minAmount"
+     */
+    public static List<MethodSpec> createNumericAggregateMethods(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        List<MethodSpec> aggregateMethods = new ArrayList<>();
+        for (FieldModel field : model.getSearchableFields()) {
+            TypeName fieldType = field.getType();
+            if (getSumType(fieldType) == null) {
+                continue;
+            }
+            aggregateMethods.add(createAggregateMethod(entityClass, field, "min", fieldType));
+            aggregateMethods.add(createAggregateMethod(entityClass, field, "max", fieldType));
+            if (!field.isId()) {
+                aggregateMethods.add(createAggregateMethod(entityClass, field, "sum", getSumType(fieldType)));
+            }
+        }
+        return aggregateMethods;
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param field       Numeric field of the entity
+     * @param function    Aggregate function, one of "min", "max" or "sum"
+     * @param resultType  Type of the aggregated value
+     * @return Generates method which computes the aggregate function over the rows matching the search query. Sums
+     * widened to Long or Double go through "sumAsLong" and "sumAsDouble", Short and Byte columns cast to Integer.
+     */
+    private static MethodSpec createAggregateMethod(final ClassName entityClass, final FieldModel field,
+                                                    final String function, final TypeName resultType) {
+        String fieldName = field.getName();
+        TypeName fieldType = field.getType().box();
+        String builderFunction = function;
+        CodeBlock path = CodeBlock.of("from.<$T>get($S)", fieldType, fieldName);
+        if ("sum".equals(function) && !resultType.equals(fieldType)) {
+            if (resultType.equals(ClassName.get(Long.class))) {
+                builderFunction = "sumAsLong";
+                if (!fieldType.equals(ClassName.get(Integer.class))) {
+                    path = CodeBlock.of("$L.as($T.class)", path, Integer.class);
+                }
+            } else {
+                builderFunction = "sumAsDouble";
+            }
+        }
+        return MethodSpec.methodBuilder(function + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1))
+                .addModifiers(Modifier.PUBLIC)
+                .returns(resultType)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("return getSelectionQuery($N, $T.class, (criteriaBuilder, from) -> criteriaBuilder"
+                        + ".$N($L)).uniqueResult()", "searchQuery", resultType, builderFunction, path)
+                .build();
+    }
+
+    /**
+     * @param fieldType Type of a field
+     * @return Returns the type of the sum of the field following the JPA rules, null if the field is not numeric.
+     */
+    private static TypeName getSumType(final TypeName fieldType) {
+        if (fieldType.equals(ClassName.get(Integer.class)) || fieldType.equals(ClassName.get(Long.class))
+                || fieldType.equals(ClassName.get(Short.class)) || fieldType.equals(ClassName.get(Byte.class))) {
+            return ClassName.get(Long.class);
+        }
+        if (fieldType.equals(ClassName.get(Double.class)) || fieldType.equals(ClassName.get(Float.class))) {
+            return ClassName.get(Double.class);
+        }
+        if (fieldType.equals(ClassName.get(BigDecimal.class)) || fieldType.equals(ClassName.get(BigInteger.class))) {
+            return fieldType;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.model.FieldModel;
+import com.brahma.dao.support.SessionTasks;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import org.hibernate.SessionFactory;
+
+import javax.lang.model.element.Modifier;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Generates the async companion class of the dao class. Every method of the companion runs a dao method on an
+ * executor, in its own session and transaction {@linkplain SessionTasks}, and returns a {@linkplain
+ * CompletableFuture}. The session of the dao class is bound to the calling thread, so it cannot be shared with the
+ * executor threads.
+ */
+public final class CreateAsyncUtils {
+
+    /**
+     *
+     */
+    private CreateAsyncUtils() {
+
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Returns the name of the async companion class generated for the entity class.
+     */
+    public static ClassName getAsyncDaoClassName(final ClassName entityClass) {
+        return ClassName.get(entityClass.packageName(), "Brahma_" + entityClass.simpleName() + "AsyncDao");
+    }
+
+    /**
+     * @param entityClass   Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param asyncDaoClass Name of the async companion class
+     * @param idField       Field of the entity class annotated with @Id {@linkplain javax.persistence.Id}
+     * @return Generates the async companion class, wrapping "getById", "search" and "createOrUpdate" of the dao
+     * class. Read only calls run in a read only session which is never flushed.
+     * @see "/testfiles/generatedao_output12_async.txt"
+     */
+    public static TypeSpec createAsyncDaoClass(final ClassName entityClass, final ClassName asyncDaoClass,
+                                               final FieldModel idField) {
+        ClassName daoClass = ClassName.get(entityClass.packageName(), "Brahma_" + entityClass.simpleName() + "Dao");
+        return TypeSpec.classBuilder(asyncDaoClass)
+                .addModifiers(Modifier.PUBLIC)
+                .addField(FieldSpec.builder(SessionFactory.class, "sessionFactory", Modifier.PRIVATE, Modifier.FINAL)
+                        .build())
+                .addField(FieldSpec.builder(daoClass, "dao", Modifier.PRIVATE, Modifier.FINAL).build())
+                .addField(FieldSpec.builder(Executor.class, "executor", Modifier.PRIVATE, Modifier.FINAL).build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(ParameterSpec.builder(SessionFactory.class, "sessionFactory").build())
+                        .addParameter(ParameterSpec.builder(Executor.class, "executor").build())
+                        .addStatement("this.sessionFactory = sessionFactory")
+                        .addStatement("this.dao = new $T(sessionFactory)", daoClass)
+                        .addStatement("this.executor = executor")
+                        .build())
+                .addMethod(createSubmitMethod("submit", daoClass, false))
+                .addMethod(createSubmitMethod("submitReadOnly", daoClass, true))
+                .addMethod(MethodSpec.methodBuilder("getById")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), entityClass))
+                        .addParameter(ParameterSpec.builder(idField.getType(), "id").build())
+                        .addStatement("return submitReadOnly(entityDao -> entityDao.getById($N))", "id")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("search")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(ParameterizedTypeName.get(ClassName.get(CompletableFuture.class),
+                                ParameterizedTypeName.get(ClassName.get(List.class), entityClass)))
+                        .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                        .addStatement("return submitReadOnly(entityDao -> entityDao.search($N))", "searchQuery")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("createOrUpdate")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), entityClass))
+                        .addParameter(ParameterSpec.builder(entityClass, "entity").build())
+                        .addStatement("return submit(entityDao -> entityDao.createOrUpdate($N))", "entity")
+                        .build())
+                .build();
+    }
+
+    /**
+     * @param methodName Name of the generated method
+     * @param daoClass   Name of the dao class
+     * @param readOnly   True if the work only reads
+     * @return Generates method which runs any work on the dao class on the executor, in its own session and
+     * transaction.
+     * @see "/testfiles/generatedao_output12_async.txt #submit"
+     */
+    private static MethodSpec createSubmitMethod(final String methodName, final ClassName daoClass,
+                                                 final boolean readOnly) {
+        TypeVariableName result = TypeVariableName.get("T");
+        return MethodSpec.methodBuilder(methodName)
+                .addModifiers(Modifier.PUBLIC)
+                .addTypeVariable(result)
+                .returns(ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), result))
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Function.class),
+                        daoClass, result), "work").build())
+                .addStatement("return $T.supplyAsync(() -> $T.call($N, $L, () -> $N.apply($N)), $N)",
+                        CompletableFuture.class, SessionTasks.class, "sessionFactory", readOnly, "work", "dao",
+                        "executor")
+                .build();
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import javax.lang.model.element.Modifier;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.ws.rs.ProcessingException;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Generates the bulk update and delete methods of the dao class. Bulk methods reuse the predicates of
+ * "getPredicateList" and run a single UPDATE or DELETE statement, without loading the matching entities. A search
+ * query restricting no field is rejected, statements on every row go through "updateAll" and "deleteAll". Like any bulk
+ * statement they bypass the persistence context, entities already loaded in the session are not refreshed.
+ */
+public final class CreateBulkUtils {
+
+    /**
+     *
+     */
+    private CreateBulkUtils() {
+
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which adds an assignment to the update statement for every non null field of the patch.
+     * The @Id {@linkplain javax.persistence.Id} field is never assigned.
+     * @see "/testfiles/generatedao_output1.txt #setPatch"
+     */
+    public static MethodSpec createSetPatchMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        MethodSpec.Builder setPatch = MethodSpec.methodBuilder("setPatch")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(TypeName.BOOLEAN)
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(CriteriaUpdate.class),
+                        entityClass), "update").build())
+                .addParameter(ParameterSpec.builder(entityClass, "patch").build())
+                .addStatement("boolean patched = false");
+        for (FieldModel field : model.getSearchableFields()) {
+            if (field.isId()) {
+                continue;
+            }
+            setPatch.beginControlFlow("if ($N.$N != null)", "patch", field.getGetter())
+                    .addStatement("$N.set($S, $N.$N)", "update", field.getName(), "patch", field.getGetter())
+                    .addStatement("patched = true")
+                    .endControlFlow();
+        }
+        return setPatch.addStatement("return patched").build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which runs the update statement in a session, restricted either to the rows matching
+     * the search query or, when ids are given, to those ids. The near cache of the dao, if any, is cleared.
+     * @see "/testfiles/generatedao_output1.txt #executeUpdateWhere"
+     */
+    public static MethodSpec createExecuteUpdateWhereMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        FieldModel idField = model.getIdField();
+        return MethodSpec.methodBuilder("executeUpdateWhere")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(TypeName.INT)
+                .addParameter(ParameterSpec.builder(Session.class, "session").build())
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(entityClass, "patch").build())
+                .addParameter(ParameterSpec.builder(getIdListType(idField), "ids").build())
+                .addStatement("$T criteriaBuilder = $N.getCriteriaBuilder()", CriteriaBuilder.class, "session")
+                .addStatement("$T<$T> update = $N.createCriteriaUpdate($T.class)", CriteriaUpdate.class, entityClass,
+                        "criteriaBuilder", entityClass)
+                .addStatement("$T<$T> from = $N.from($T.class)", Root.class, entityClass, "update", entityClass)
+                .beginControlFlow("if (!setPatch($N, $N))", "update", "patch")
+                .addStatement("return 0")
+                .endControlFlow()
+                .beginControlFlow("if ($N != null)", "ids")
+                .addStatement("$N.where($N.get($S).in($N))", "update", "from", idField.getName(), "ids")
+                .endControlFlow()
+                .beginControlFlow("else")
+                .addStatement("$T<$T> searchRestrictions = getBulkPredicateList($N,$N,$N)", List.class, Predicate.class,
+                        "searchQuery", "criteriaBuilder", "from")
+                .addStatement("$N.where($N.toArray(new $T[$N.size()]))", "update", "searchRestrictions",
+                        Predicate.class, "searchRestrictions")
+                .endControlFlow()
+                .addCode(createExecuteCodeBlock(model, "update"))
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which runs the delete statement in a session, restricted either to the rows matching
+     * the search query or, when ids are given, to those ids. The near cache of the dao, if any, is cleared.
+     * @see "/testfiles/generatedao_output1.txt #executeDeleteWhere"
+     */
+    public static MethodSpec createExecuteDeleteWhereMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        FieldModel idField = model.getIdField();
+        return MethodSpec.methodBuilder("executeDeleteWhere")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(TypeName.INT)
+                .addParameter(ParameterSpec.builder(Session.class, "session").build())
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(getIdListType(idField), "ids").build())
+                .addStatement("$T criteriaBuilder = $N.getCriteriaBuilder()", CriteriaBuilder.class, "session")
+                .addStatement("$T<$T> delete = $N.createCriteriaDelete($T.class)", CriteriaDelete.class, entityClass,
+                        "criteriaBuilder", entityClass)
+                .addStatement("$T<$T> from = $N.from($T.class)", Root.class, entityClass, "delete", entityClass)
+                .beginControlFlow("if ($N != null)", "ids")
+                .addStatement("$N.where($N.get($S).in($N))", "delete", "from", idField.getName(), "ids")
+                .endControlFlow()
+                .beginControlFlow("else")
+                .addStatement("$T<$T> searchRestrictions = getBulkPredicateList($N,$N,$N)", List.class, Predicate.class,
+                        "searchQuery", "criteriaBuilder", "from")
+                .addStatement("$N.where($N.toArray(new $T[$N.size()]))", "delete", "searchRestrictions",
+                        Predicate.class, "searchRestrictions")
+                .endControlFlow()
+                .addCode(createExecuteCodeBlock(model, "delete"))
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates method which returns the predicates of the search query of a bulk statement. A null search
+     * query, or one which restricts no field, is rejected, so an unset example never turns into a statement on every
+     * row, which "updateAll" and "deleteAll" are for.
+     * @see "/testfiles/generatedao_output1.txt #getBulkPredicateList"
+     */
+    public static MethodSpec createGetBulkPredicateListMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("getBulkPredicateList")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(ParameterizedTypeName.get(List.class, Predicate.class))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(CriteriaBuilder.class, "criteriaBuilder").build())
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Root.class), entityClass),
+                        "from").build())
+                .beginControlFlow("if ($N == null)", "searchQuery")
+                .addStatement("throw new $T($S)", ProcessingException.class, "A bulk statement needs a search query, "
+                        + "use updateAll or deleteAll to change every row")
+                .endControlFlow()
+                .addStatement("$T<$T> searchRestrictions = getPredicateList($N,$N,$N)", List.class, Predicate.class,
+                        "searchQuery", "criteriaBuilder", "from")
+                .beginControlFlow("if ($N.isEmpty())", "searchRestrictions")
+                .addStatement("throw new $T($S)", ProcessingException.class, "The search query of a bulk statement "
+                        + "restricts no field, use updateAll or deleteAll to change every row")
+                .endControlFlow()
+                .addStatement("return $N", "searchRestrictions")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates method which updates the rows matching the search query with the non null fields of the
+     * patch, in a single statement of the current session.
+     * @see "/testfiles/generatedao_output1.txt #updateWhere(ClassName, ClassName)"
+     */
+    public static MethodSpec createUpdateWhereMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("updateWhere")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.INT)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(entityClass, "patch").build())
+                .addStatement("return executeUpdateWhere(this.currentSession(), $N, $N, null)", "searchQuery",
+                        "patch")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates method which deletes the rows matching the search query in a single statement of the current
+     * session.
+     * @see "/testfiles/generatedao_output1.txt #deleteWhere(ClassName)"
+     */
+    public static MethodSpec createDeleteWhereMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("deleteWhere")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.INT)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("return executeDeleteWhere(this.currentSession(), $N, null)", "searchQuery")
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which updates every row of the table with the non null fields of the patch, in a
+     * single statement of the current session.
+     * @see "/testfiles/generatedao_output1.txt #updateAll"
+     */
+    public static MethodSpec createUpdateAllMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        return MethodSpec.methodBuilder("updateAll")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.INT)
+                .addParameter(ParameterSpec.builder(entityClass, "patch").build())
+                .addStatement("$T session = this.currentSession()", Session.class)
+                .addStatement("$T<$T> update = $N.getCriteriaBuilder().createCriteriaUpdate($T.class)",
+                        CriteriaUpdate.class, entityClass, "session", entityClass)
+                .addStatement("$N.from($T.class)", "update", entityClass)
+                .beginControlFlow("if (!setPatch($N, $N))", "update", "patch")
+                .addStatement("return 0")
+                .endControlFlow()
+                .addCode(createExecuteCodeBlock(model, "update"))
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which deletes every row of the table in a single statement of the current session.
+     * @see "/testfiles/generatedao_output1.txt #deleteAll"
+     */
+    public static MethodSpec createDeleteAllMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        return MethodSpec.methodBuilder("deleteAll")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.INT)
+                .addStatement("$T session = this.currentSession()", Session.class)
+                .addStatement("$T<$T> delete = $N.getCriteriaBuilder().createCriteriaDelete($T.class)",
+                        CriteriaDelete.class, entityClass, "session", entityClass)
+                .addStatement("$N.from($T.class)", "delete", entityClass)
+                .addCode(createExecuteCodeBlock(model, "delete"))
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates the chunked variant of "updateWhere". See {@linkplain #createExecuteInChunksMethod(EntityModel)}.
+     * @see "/testfiles/generatedao_output1.txt #updateWhere(ClassName, ClassName, int)"
+     */
+    public static MethodSpec createChunkedUpdateWhereMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("updateWhere")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.INT)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(entityClass, "patch").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "chunkSize").build())
+                .addStatement("return executeInChunks($N, $N, (session, ids) -> executeUpdateWhere(session, $N, $N, "
+                        + "ids))", "searchQuery", "chunkSize", "searchQuery", "patch")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates the chunked variant of "deleteWhere". See {@linkplain #createExecuteInChunksMethod(EntityModel)}.
+     * @see "/testfiles/generatedao_output1.txt #deleteWhere(ClassName, int)"
+     */
+    public static MethodSpec createChunkedDeleteWhereMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("deleteWhere")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.INT)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "chunkSize").build())
+                .addStatement("return executeInChunks($N, $N, (session, ids) -> executeDeleteWhere(session, $N, ids))",
+                        "searchQuery", "chunkSize", "searchQuery")
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which walks the ids of the rows matching the search query in ascending ranges of
+     * "chunkSize" ids and applies an operation to every range. It runs in its own session and commits every range in
+     * its own transaction, so large purges never hold row locks for long.
+     * @see "/testfiles/generatedao_output1.txt #executeInChunks"
+     */
+    public static MethodSpec createExecuteInChunksMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        FieldModel idField = model.getIdField();
+        TypeName idType = idField.getType().box();
+        return MethodSpec.methodBuilder("executeInChunks")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(TypeName.INT)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "chunkSize").build())
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(BiFunction.class),
+                        ClassName.get(Session.class), getIdListType(idField), ClassName.get(Integer.class)),
+                        "operation").build())
+                .beginControlFlow("if ($N < 1)", "chunkSize")
+                .addStatement("throw new $T($S + $N)", ProcessingException.class, "chunkSize should be positive, found ",
+                        "chunkSize")
+                .endControlFlow()
+                .addStatement("int affected = 0")
+                .beginControlFlow("try ($T session = $N.openSession())", Session.class, "sessionFactory")
+                .addStatement("$T lastId = null", idType)
+                .addStatement("boolean hasMore = true")
+                .beginControlFlow("while (hasMore)")
+                .addStatement("$T transaction = $N.beginTransaction()", Transaction.class, "session")
+                .beginControlFlow("try")
+                .addStatement("$T ids = getChunkIds($N, $N, lastId, $N)", getIdListType(idField), "session",
+                        "searchQuery", "chunkSize")
+                .addStatement("hasMore = $N.size() == $N", "ids", "chunkSize")
+                .beginControlFlow("if (!$N.isEmpty())", "ids")
+                .addStatement("affected += $N.apply($N, $N)", "operation", "session", "ids")
+                .addStatement("lastId = $N.get($N.size() - 1)", "ids", "ids")
+                .endControlFlow()
+                .addStatement("$N.commit()", "transaction")
+                .endControlFlow()
+                .beginControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement("$N.rollback()", "transaction")
+                .addStatement("throw e")
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return affected")
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which selects, in ascending order, the first "chunkSize" ids of the rows matching the
+     * search query which come after the given id.
+     * @see "/testfiles/generatedao_output1.txt #getChunkIds"
+     */
+    public static MethodSpec createGetChunkIdsMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        FieldModel idField = model.getIdField();
+        TypeName idType = idField.getType().box();
+        return MethodSpec.methodBuilder("getChunkIds")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(getIdListType(idField))
+                .addParameter(ParameterSpec.builder(Session.class, "session").build())
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(idType, "afterId").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "chunkSize").build())
+                .addStatement("$T criteriaBuilder = $N.getCriteriaBuilder()", CriteriaBuilder.class, "session")
+                .addStatement("$T<$T> query = $N.createQuery($T.class)", CriteriaQuery.class, idType,
+                        "criteriaBuilder", idType)
+                .addStatement("$T<$T> from = $N.from($T.class)", Root.class, entityClass, "query", entityClass)
+                .addStatement("$T<$T> searchRestrictions = getBulkPredicateList($N,$N,$N)", List.class, Predicate.class,
+                        "searchQuery", "criteriaBuilder", "from")
+                .beginControlFlow("if ($N != null)", "afterId")
+                .addStatement("$N.add($N.greaterThan($N.<$T>get($S), $N))", "searchRestrictions", "criteriaBuilder",
+                        "from", idType, idField.getName(), "afterId")
+                .endControlFlow()
+                .addStatement("$N.select($N.<$T>get($S)).where($N.toArray(new $T[$N.size()])).orderBy($N.asc($N.get($S)))",
+                        "query", "from", idType, idField.getName(), "searchRestrictions", Predicate.class,
+                        "searchRestrictions", "criteriaBuilder", "from", idField.getName())
+                .addStatement("return $N.createQuery($N).setMaxResults($N).list()", "session", "query", "chunkSize")
+                .build();
+    }
+
+    /**
+     * @param model     Model of the entity class
+     * @param statement Name of the generated update or delete statement variable
+     * @return Executes the statement, clearing the near cache {@linkplain com.brahma.dao.annotations.NearCache} of
+     * the dao afterwards if it has one.
+     */
+    private static CodeBlock createExecuteCodeBlock(final EntityModel model, final String statement) {
+        if (!CreateNearCacheUtils.hasNearCache(model)) {
+            return CodeBlock.builder().addStatement("return $N.createQuery($N).executeUpdate()", "session", statement)
+                    .build();
+        }
+        return CodeBlock.builder()
+                .addStatement("int affected = $N.createQuery($N).executeUpdate()", "session", statement)
+                .add(CreateNearCacheUtils.createClearCodeBlock(model))
+                .addStatement("return affected")
+                .build();
+    }
+
+    /**
+     * @param idField Field of the entity class annotated with @Id {@linkplain javax.persistence.Id}
+     * @return Returns the list type of the ids of the entity.
+     */
+    private static TypeName getIdListType(final FieldModel idField) {
+        return ParameterizedTypeName.get(ClassName.get(List.class), idField.getType().box());
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.meta.SearchMeta;
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+import com.brahma.dao.support.SearchPatterns;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import javax.lang.model.element.Modifier;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.ws.rs.ProcessingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the criteria class of the dao class and the search methods applying it. The criteria class holds the
+ * conditions an example object cannot express, IN lists, null checks, ranges and prefixes, and every condition is
+ * turned into a Criteria predicate so the filtering happens in the database.
+ */
+public final class CreateCriteriaUtils {
+    /**
+     * Suffix of the condition matching a list of values.
+     */
+    private static final String IN = "In";
+    /**
+     * Suffix of the condition checking the column for null, or for not null when false.
+     */
+    private static final String IS_NULL = "IsNull";
+    /**
+     * Suffix of the inclusive lower bound condition.
+     */
+    private static final String FROM = "From";
+    /**
+     * Suffix of the inclusive upper bound condition.
+     */
+    private static final String TO = "To";
+    /**
+     * Suffix of the exclusive lower bound condition.
+     */
+    private static final String GREATER_THAN = "GreaterThan";
+    /**
+     * Suffix of the exclusive upper bound condition.
+     */
+    private static final String LESS_THAN = "LessThan";
+    /**
+     * Suffix of the prefix condition.
+     */
+    private static final String STARTS_WITH = "StartsWith";
+
+    /**
+     *
+     */
+    private CreateCriteriaUtils() {
+
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Returns the name of the criteria class generated for the entity class.
+     */
+    public static ClassName getCriteriaClassName(final ClassName entityClass) {
+        return ClassName.get(entityClass.packageName(), "Brahma_" + entityClass.simpleName() + "Criteria");
+    }
+
+    /**
+     * @param criteriaClass Name of the criteria class
+     * @param model         Model of the entity class
+     * @return Generates the criteria class with a property per condition of every searchable field. Every searchable
+     * field gets an IN list and a null check, ordered fields get inclusive and exclusive bounds and text fields get a
+     * prefix.
+     * @see "/testfiles/generatedao_output10_criteria.txt"
+     */
+    public static TypeSpec createCriteriaClass(final ClassName criteriaClass, final EntityModel model) {
+        TypeSpec.Builder criteria = TypeSpec.classBuilder(criteriaClass).addModifiers(Modifier.PUBLIC);
+        model.getSearchableFields().forEach(field ->
+                getConditions(field).forEach((condition, conditionType) -> {
+                    String propertyName = field.getName() + condition;
+                    criteria.addField(FieldSpec.builder(conditionType, propertyName, Modifier.PRIVATE).build())
+                            .addMethod(MethodSpec.methodBuilder("get" + capitalize(propertyName))
+                                    .addModifiers(Modifier.PUBLIC)
+                                    .returns(conditionType)
+                                    .addStatement("return $N", propertyName)
+                                    .build())
+                            .addMethod(MethodSpec.methodBuilder("set" + capitalize(propertyName))
+                                    .addModifiers(Modifier.PUBLIC)
+                                    .addParameter(ParameterSpec.builder(conditionType, propertyName).build())
+                                    .addStatement("this.$N = $N", propertyName, propertyName)
+                                    .build());
+                }));
+        return criteria.build();
+    }
+
+    /**
+     * @param model         Model of the entity class
+     * @param criteriaClass Name of the criteria class
+     * @return Generates method which returns the predicates of the conditions set on the criteria object. Two bounds
+     * of a field make a single "between", an empty IN list matches no row.
+     * @see "/testfiles/generatedao_output10.txt #getCriteriaPredicateList"
+     */
+    public static MethodSpec createGetCriteriaPredicateListMethod(final EntityModel model,
+                                                                  final ClassName criteriaClass) {
+        ClassName entityClass = model.getEntityClass();
+        MethodSpec.Builder predicateList = MethodSpec.methodBuilder("getCriteriaPredicateList")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), ClassName.get(Predicate.class)))
+                .addParameter(ParameterSpec.builder(criteriaClass, "criteria").build())
+                .addParameter(ParameterSpec.builder(CriteriaBuilder.class, "criteriaBuilder").build())
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Root.class), entityClass),
+                        "from").build())
+                .addStatement("$T<$T> searchRestrictions = new $T<>()", List.class, Predicate.class, ArrayList.class)
+                .beginControlFlow("if ($N == null)", "criteria")
+                .addStatement("return $N", "searchRestrictions")
+                .endControlFlow();
+        model.getSearchableFields().forEach(field -> {
+            String fieldName = field.getName();
+            TypeName fieldType = field.getType().box();
+            Map<String, TypeName> conditions = getConditions(field);
+            String in = getter(fieldName, IN);
+            predicateList.beginControlFlow("if ($N.$N != null)", "criteria", in)
+                    .addStatement("$N.add($N.$N.isEmpty() ? $N.disjunction() : $N.get($S).in($N.$N))",
+                            "searchRestrictions", "criteria", in, "criteriaBuilder", "from", fieldName, "criteria", in)
+                    .endControlFlow();
+            String isNull = getter(fieldName, IS_NULL);
+            predicateList.beginControlFlow("if ($N.$N != null)", "criteria", isNull)
+                    .addStatement("$N.add($N.$N ? $N.isNull($N.get($S)) : $N.isNotNull($N.get($S)))",
+                            "searchRestrictions", "criteria", isNull, "criteriaBuilder", "from", fieldName,
+                            "criteriaBuilder", "from", fieldName)
+                    .endControlFlow();
+            if (conditions.containsKey(FROM)) {
+                String lower = getter(fieldName, FROM);
+                String upper = getter(fieldName, TO);
+                predicateList.beginControlFlow("if ($N.$N != null && $N.$N != null)", "criteria", lower, "criteria",
+                        upper)
+                        .addStatement("$N.add($N.between($N.<$T>get($S), $N.$N, $N.$N))", "searchRestrictions",
+                                "criteriaBuilder", "from", fieldType, fieldName, "criteria", lower, "criteria", upper)
+                        .nextControlFlow("else if ($N.$N != null)", "criteria", lower)
+                        .addStatement("$N.add($N.greaterThanOrEqualTo($N.<$T>get($S), $N.$N))",
+                                "searchRestrictions", "criteriaBuilder", "from", fieldType, fieldName, "criteria",
+                                lower)
+                        .nextControlFlow("else if ($N.$N != null)", "criteria", upper)
+                        .addStatement("$N.add($N.lessThanOrEqualTo($N.<$T>get($S), $N.$N))", "searchRestrictions",
+                                "criteriaBuilder", "from", fieldType, fieldName, "criteria", upper)
+                        .endControlFlow();
+                String greaterThan = getter(fieldName, GREATER_THAN);
+                predicateList.beginControlFlow("if ($N.$N != null)", "criteria", greaterThan)
+                        .addStatement("$N.add($N.greaterThan($N.<$T>get($S), $N.$N))", "searchRestrictions",
+                                "criteriaBuilder", "from", fieldType, fieldName, "criteria", greaterThan)
+                        .endControlFlow();
+                String lessThan = getter(fieldName, LESS_THAN);
+                predicateList.beginControlFlow("if ($N.$N != null)", "criteria", lessThan)
+                        .addStatement("$N.add($N.lessThan($N.<$T>get($S), $N.$N))", "searchRestrictions",
+                                "criteriaBuilder", "from", fieldType, fieldName, "criteria", lessThan)
+                        .endControlFlow();
+            }
+            if (conditions.containsKey(STARTS_WITH)) {
+                String startsWith = getter(fieldName, STARTS_WITH);
+                predicateList.beginControlFlow("if ($N.$N != null)", "criteria", startsWith)
+                        .addStatement("$N.add($N.like($N.<$T>get($S), $T.startsWith($N.$N), $T.ESCAPE_CHAR))",
+                                "searchRestrictions", "criteriaBuilder", "from", String.class, fieldName,
+                                SearchPatterns.class, "criteria", startsWith, SearchPatterns.class)
+                        .endControlFlow();
+            }
+        });
+        return predicateList.addStatement("return $N", "searchRestrictions").build();
+    }
+
+    /**
+     * @param model         Model of the entity class, holding the query options of the searches
+     * @param criteriaClass Name of the criteria class
+     * @return Generates method which returns the query of the entities matching both the example object and the
+     * criteria object.
+     * @see "/testfiles/generatedao_output10.txt #getCriteriaSearchQuery"
+     */
+    public static MethodSpec createGetCriteriaSearchQueryMethod(final EntityModel model,
+                                                                final ClassName criteriaClass) {
+        ClassName entityClass = model.getEntityClass();
+        return MethodSpec.methodBuilder("getCriteriaSearchQuery")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(ParameterizedTypeName.get(ClassName.get(Query.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(criteriaClass, "criteria").build())
+                .addStatement("$T session = this.currentSession()", Session.class)
+                .addStatement("$T criteriaBuilder = session.getCriteriaBuilder()", CriteriaBuilder.class)
+                .addStatement("$T<$T> query = criteriaBuilder.createQuery($T.class)", CriteriaQuery.class, entityClass,
+                        entityClass)
+                .addStatement("$T<$T> from = query.from($T.class)", Root.class, entityClass, entityClass)
+                .addStatement("$T<$T> searchRestrictions = getPredicateList($N, $N, $N)", List.class, Predicate.class,
+                        "searchQuery", "criteriaBuilder", "from")
+                .addStatement("$N.addAll(getCriteriaPredicateList($N, $N, $N))", "searchRestrictions", "criteria",
+                        "criteriaBuilder", "from")
+                .addStatement("$N.select($N).where($N.toArray(new $T[$N.size()]))", "query", "from",
+                        "searchRestrictions", Predicate.class, "searchRestrictions")
+                .addStatement("$T<$T> typedQuery = session.createQuery($N)", Query.class, entityClass, "query")
+                .addCode(CreateDaoUtils.createSearchQueryOptionsCodeBlock("typedQuery", model))
+                .addStatement("return $N", "typedQuery")
+                .build();
+    }
+
+    /**
+     * @param entityClass   Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param criteriaClass Name of the criteria class
+     * @return Generates search method which returns the entities matching both the example object and the criteria
+     * object.
+     * @see "/testfiles/generatedao_output10.txt #searchByCriteria"
+     */
+    public static MethodSpec createSearchByCriteriaMethod(final ClassName entityClass, final ClassName criteriaClass) {
+        return MethodSpec.methodBuilder("searchByCriteria")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(criteriaClass, "criteria").build())
+                .addStatement("return getCriteriaSearchQuery($N, $N).list()", "searchQuery", "criteria")
+                .build();
+    }
+
+    /**
+     * @param entityClass   Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param criteriaClass Name of the criteria class
+     * @return Generates search method with SearchMeta {@linkplain SearchMeta} which returns a sorted page of the
+     * entities matching both the example object and the criteria object. Only generated when {@linkplain
+     * com.brahma.dao.annotations.GenerateDao#supportSearchVariations()} is true.
+     * @see "/testfiles/generatedao_output10.txt #searchByCriteria(ClassName, ClassName, SearchMeta)"
+     */
+    public static MethodSpec createSearchByCriteriaMethodWithParams(final ClassName entityClass,
+                                                                    final ClassName criteriaClass) {
+        return MethodSpec.methodBuilder("searchByCriteria")
+                .addModifiers(Modifier.PUBLIC)
+                .addException(ProcessingException.class)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(criteriaClass, "criteria").build())
+                .addParameter(ParameterSpec.builder(SearchMeta.class, "searchParams").build())
+                .beginControlFlow("if (searchParams != null)")
+                .addCode(CreateDaoUtils.createPageCodeBlock())
+                .addStatement("$T criteriaBuilder = this.currentSession().getCriteriaBuilder()", CriteriaBuilder.class)
+                .addStatement("$T<$T> query = criteriaBuilder.createQuery($T.class)", CriteriaQuery.class, entityClass,
+                        entityClass)
+                .addStatement("$T<$T> from = query.from($T.class)", Root.class, entityClass, entityClass)
+                .addStatement("$T<$T> searchRestrictions = getPredicateList($N, $N, $N)", List.class, Predicate.class,
+                        "searchQuery", "criteriaBuilder", "from")
+                .addStatement("$N.addAll(getCriteriaPredicateList($N, $N, $N))", "searchRestrictions", "criteria",
+                        "criteriaBuilder", "from")
+                .addStatement("return getSearchQueryWithParamsAndPredicateList($N, $N, $N, $N, $N)"
+                                + ".setMaxResults($N).setFirstResult($N).list()", "searchQuery", "searchParams",
+                        "searchRestrictions", "from", "query", "querySize", "queryIndex")
+                .endControlFlow()
+                .addStatement("throw new $T($S)", ProcessingException.class, "searchParams object found null ")
+                .build();
+    }
+
+    /**
+     * @param field Searchable field of the entity class
+     * @return Returns the conditions of the field in the criteria class, keyed by the suffix of their property and
+     * mapped to the type of the property.
+     */
+    private static Map<String, TypeName> getConditions(final FieldModel field) {
+        TypeName fieldType = field.getType().box();
+        Map<String, TypeName> conditions = new LinkedHashMap<>();
+        conditions.put(IN, ParameterizedTypeName.get(ClassName.get(Collection.class), fieldType));
+        conditions.put(IS_NULL, TypeName.BOOLEAN.box());
+        if (field.isRangeComparable()) {
+            conditions.put(FROM, fieldType);
+            conditions.put(TO, fieldType);
+            conditions.put(GREATER_THAN, fieldType);
+            conditions.put(LESS_THAN, fieldType);
+        }
+        if (field.isText()) {
+            conditions.put(STARTS_WITH, fieldType);
+        }
+        return conditions;
+    }
+
+    /**
+     * @param fieldName Name of a searchable field
+     * @param condition Suffix of a condition
+     * @return Returns the getter of the condition property in the criteria class.
+     */
+    private static String getter(final String fieldName, final String condition) {
+        return "get" + capitalize(fieldName) + condition + "()";
+    }
+
+    /**
+     * @param name Name of a field or property
+     * @return Returns the name with its first letter in upper case.
+     */
+    private static String capitalize(final String name) {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+}
@@ -17,35 +17,43 @@
  */
 package com.brahma.dao.utils;
 
-import com.brahma.dao.annotations.Default;
+import com.brahma.dao.annotations.DaoCache;
 import com.brahma.dao.annotations.GenerateDao;
+import com.brahma.dao.meta.SearchCursor;
 import com.brahma.dao.meta.SearchMeta;
 import com.brahma.dao.meta.SortType;
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
 import com.squareup.javapoet.*;
+import org.hibernate.CacheMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.hibernate.query.Query;
 
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.RoundEnvironment;
-import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
-import javax.lang.model.element.VariableElement;
 import javax.persistence.*;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.ws.rs.ProcessingException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Generates methods of dao class to be generated for the elements annotated with {@linkplain GenerateDao}.
  * <p>
  * {@linkplain com.brahma.dao.processor.DaoProcessor #generateDaoClasses()} {@linkplain
- * com.brahma.dao.processor.DaoProcessor #generateAllSearchVariationsMethods(TypeSpec.Builder, ClassName)}
+ * com.brahma.dao.processor.DaoProcessor #generateAllSearchVariationsMethods(TypeSpec.Builder, EntityModel)}
  */
 public final class CreateDaoUtils {
     /**
@@ -60,57 +68,166 @@ public final class CreateDaoUtils {
 
     }
 
+    /**
+     * Created method that sets the default values {@linkplain com.brahma.dao.annotations.Default} of the fields which are null.
+     *
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao} annotation.
+     * @return Returns method which applies the default values
+     * @see "/testfiles/generatedao_output1.txt #applyDefaults"
+     */
+    public static MethodSpec createApplyDefaultsMethod(final EntityModel model) {
+        MethodSpec.Builder applyDefaults = MethodSpec.methodBuilder("applyDefaults");
+        String parameterName = model.getParameterName();
+        for (FieldModel field : model.getFields()) {
+            if (!field.hasDefault()) {
+                continue;
+            }
+            applyDefaults.beginControlFlow("if($N.$N == null)", parameterName, field.getGetter());
+            if (field.isEnumDefault()) {
+                applyDefaults.addStatement("$N.$N($T.$N)", parameterName, field.getSetter(), field.getType(),
+                        field.getDefaultValue());
+            } else {
+                applyDefaults.addStatement("$N.$N($T.valueOf($S))", parameterName, field.getSetter(), field.getType(),
+                        field.getDefaultValue());
+            }
+            applyDefaults.endControlFlow();
+        }
+        return applyDefaults.addModifiers(Modifier.PROTECTED)
+                .addParameter(ParameterSpec.builder(model.getEntityClass(), parameterName).build())
+                .build();
+    }
+
     /**
      * Created method that persists a object in db.
      *
-     * @param typeElement      Represents a class or interface annotated element
-     * @param entityClass      Entity class annotated with {@linkplain GenerateDao} annotation.
-     * @param annotatedElement Element of the entity class
-     * @param messager         Used to report errors, warnings, and other notices
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao} annotation.
      * @return Returns persist method
      * @see "/testfiles/generatedao_output1.txt #createOrUpdate"
      */
-    public static MethodSpec createPersistMethod(final TypeElement typeElement, final ClassName entityClass, final
-    Element annotatedElement, final Messager messager) {
-        MethodSpec.Builder createOrUpdate = MethodSpec.methodBuilder("createOrUpdate");
-
-        annotatedElement.getEnclosedElements().stream().filter(field -> field.getKind().isField()).forEach(field -> {
-
-
-            if (ClassName.get(field.asType()).isPrimitive()) {
-                MessagingUtils.error(messager, field, "Primitive types are not supported while using @GenerateDao");
-            }
-
-            if ((field.getAnnotation(Default.class) != null)) {
-
-                String parameterName = AnnotatedClassUtils.getParameterName(typeElement);
-                String getMethod = AnnotatedFieldUtils.getMethod(field);
-                String setMethod = AnnotatedFieldUtils.setMethod(field);
-                String value = AnnotatedFieldUtils.getDefaultValue(field);
+    public static MethodSpec createPersistMethod(final EntityModel model) {
+        return MethodSpec.methodBuilder("createOrUpdate")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(model.getEntityClass())
+                .addParameter(ParameterSpec.builder(model.getEntityClass(), model.getParameterName()).build())
+                .addStatement("applyDefaults($N)", model.getParameterName())
+                .addCode(createPersistCodeBlock(model))
+                .build();
+    }
 
-                if (AnnotatedFieldUtils.getClassType(field).equals("java.lang.Enum")) {
+    /**
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao} annotation.
+     * @return Persists the object, dropping it from the near cache {@linkplain com.brahma.dao.annotations.NearCache} if the entity has one.
+     */
+    private static CodeBlock createPersistCodeBlock(final EntityModel model) {
+        String parameterName = model.getParameterName();
+        if (!CreateNearCacheUtils.hasNearCache(model)) {
+            return CodeBlock.builder().addStatement("return persist($N)", parameterName).build();
+        }
+        return CodeBlock.builder()
+                .addStatement("$T persisted = persist($N)", model.getEntityClass(), parameterName)
+                .add(CreateNearCacheUtils.createInvalidateCodeBlock(model, "persisted"))
+                .addStatement("return $N", "persisted")
+                .build();
+    }
 
-                    createOrUpdate.beginControlFlow("if($N.$N == null)", parameterName,
-                            getMethod)
-                            .addStatement("$N.$N($T.$N)", parameterName, setMethod, AnnotatedFieldUtils.getCastType
-                                    (field), value)
-                            .endControlFlow();
-                } else {
-                    createOrUpdate.beginControlFlow("if($N.$N == null)", parameterName,
-                            getMethod)
-                            .addStatement("$N.$N($T.valueOf($S))", parameterName, setMethod, AnnotatedFieldUtils
-                                    .getCastType(field), value)
-                            .endControlFlow();
+    /**
+     * Created method that persists a collection of objects in db. The session is flushed after every "batchSize"
+     * objects, so the inserts/updates of a batch are sent as a single JDBC batch, and the objects the method attached
+     * to the session are then evicted, so the persistence context stays bounded. Objects the session already managed
+     * before the call, and every other entity of the caller, stay managed. Every object is persisted directly rather
+     * than through "createOrUpdate", so that a subclass overriding it, such as the instrumented dao, sees a batch as a
+     * single call.
+     *
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao} annotation.
+     * @return Returns batched persist method
+     * @see "/testfiles/generatedao_output1.txt #createOrUpdateAll"
+     */
+    public static MethodSpec createPersistAllMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        return MethodSpec.methodBuilder("createOrUpdateAll")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityClass))
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                        entityClass), "entities").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "batchSize").build())
+                .addCode(createBatchSizeValidationCodeBlock())
+                .addStatement("$T session = this.currentSession()", Session.class)
+                .addStatement("$T sessionBatchSize = $N.getJdbcBatchSize()", Integer.class, "session")
+                .addStatement("$N.setJdbcBatchSize($N)", "session", "batchSize")
+                .addStatement("$T<$T> persisted = new $T<>($N.size())", List.class, entityClass, ArrayList.class,
+                        "entities")
+                .addStatement("$T<$T> attached = new $T<>()", List.class, entityClass, ArrayList.class)
+                .beginControlFlow("try")
+                .addStatement("int pending = 0")
+                .beginControlFlow("for ($T entity : $N)", entityClass, "entities")
+                .addStatement("boolean managed = $N.contains($N)", "session", "entity")
+                .addStatement("applyDefaults($N)", "entity")
+                .addStatement("$N.add(persist($N))", "persisted", "entity")
+                .addCode(CreateNearCacheUtils.createInvalidateCodeBlock(model, "entity"))
+                .beginControlFlow("if (!managed)")
+                .addStatement("$N.add($N)", "attached", "entity")
+                .endControlFlow()
+                .addStatement("pending++")
+                .beginControlFlow("if (pending == $N)", "batchSize")
+                .addStatement("$N.flush()", "session")
+                .addStatement("$N.forEach($N::evict)", "attached", "session")
+                .addStatement("$N.clear()", "attached")
+                .addStatement("pending = 0")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("$N.flush()", "session")
+                .addStatement("$N.forEach($N::evict)", "attached", "session")
+                .endControlFlow()
+                .beginControlFlow("finally")
+                .addStatement("$N.setJdbcBatchSize($N)", "session", "sessionBatchSize")
+                .endControlFlow()
+                .addStatement("return $N", "persisted")
+                .build();
+    }
 
-                }
+    /**
+     * Created method that inserts a collection of objects through a {@linkplain StatelessSession} in its own
+     * transaction. Nothing is kept in a persistence context, which suits insert-only bulk loads.
+     *
+     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation.
+     * @return Returns stateless batched insert method
+     * @see "/testfiles/generatedao_output1.txt #insertAll"
+     */
+    public static MethodSpec createInsertAllMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("insertAll")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                        entityClass), "entities").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "batchSize").build())
+                .addCode(createBatchSizeValidationCodeBlock())
+                .beginControlFlow("try ($T session = $N.openStatelessSession())", StatelessSession.class,
+                        "sessionFactory")
+                .addStatement("$N.setJdbcBatchSize($N)", "session", "batchSize")
+                .addStatement("$T transaction = $N.beginTransaction()", Transaction.class, "session")
+                .beginControlFlow("try")
+                .beginControlFlow("for ($T entity : $N)", entityClass, "entities")
+                .addStatement("applyDefaults($N)", "entity")
+                .addStatement("$N.insert($N)", "session", "entity")
+                .endControlFlow()
+                .addStatement("$N.commit()", "transaction")
+                .endControlFlow()
+                .beginControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement("$N.rollback()", "transaction")
+                .addStatement("throw e")
+                .endControlFlow()
+                .endControlFlow()
+                .build();
+    }
 
-            }
-        });
-        return createOrUpdate.addModifiers(Modifier.PUBLIC)
-                .returns(entityClass)
-                .addParameter(ParameterSpec.builder(entityClass, AnnotatedClassUtils.getParameterName(typeElement))
-                        .build())
-                .addStatement("return persist($N)", AnnotatedClassUtils.getParameterName(typeElement))
+    /**
+     * @return Rejects batch sizes which are not positive.
+     */
+    private static CodeBlock createBatchSizeValidationCodeBlock() {
+        return CodeBlock.builder()
+                .beginControlFlow("if ($N < 1)", "batchSize")
+                .addStatement("throw new $T($S + $N)", ProcessingException.class, "batchSize should be positive, found ",
+                        "batchSize")
+                .endControlFlow()
                 .build();
     }
 
@@ -123,20 +240,27 @@ public final class CreateDaoUtils {
                 .addModifiers(Modifier.PUBLIC)
                 .addParameter(ClassName.get(SessionFactory.class), "sessionFactory")
                 .addStatement("super($N)", "sessionFactory")
+                .addStatement("this.$N = $N", "sessionFactory", "sessionFactory")
                 .build();
 
     }
 
     /**
-     * @param annotatedElement Element of the entity class annotated with {@linkplain GenerateDao}
-     * @param messager         Used to report errors, warnings, and other notices
-     * @param entityClass      Entity class annotated with {@linkplain GenerateDao} annotation
-     * @return Returns method which add the attribute value to the Predicate {@linkplain Predicate} list
-     * @see "/testfiles/generatedao_output1.txt #getPredicateList"
+     * @return Session factory field of the generated dao class, used by the methods which open their own session.
      */
-    public static MethodSpec addToPredicateListMethod(final Element annotatedElement,
-                                                      final Messager messager, final ClassName entityClass) {
+    public static FieldSpec createSessionFactoryField() {
+        return FieldSpec.builder(SessionFactory.class, "sessionFactory", Modifier.PRIVATE, Modifier.FINAL).build();
+    }
 
+    /**
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao}
+     * @return Returns method which add the attribute value to the Predicate {@linkplain Predicate} list. It is final
+     * when the search mask backs "getSearchQuery", as overriding it would not change the searches run through the
+     * cached HQL strings.
+     * @see "/testfiles/generatedao_output1.txt #getPredicateList"
+     */
+    public static MethodSpec addToPredicateListMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
         MethodSpec.Builder addToPredicateList = MethodSpec.methodBuilder("getPredicateList")
                 .returns(ParameterizedTypeName.get(ClassName.get(List.class), ClassName.get(Predicate.class)))
                 .addModifiers(Modifier.PROTECTED)
@@ -147,39 +271,54 @@ public final class CreateDaoUtils {
                 .addStatement("$T<$T> searchRestrictions = new $T<>()", ClassName.get(List.class), ClassName.get
                                 (Predicate.class),
                         ClassName.get(ArrayList.class));
-        annotatedElement.getEnclosedElements().stream().filter(field -> field.getKind().isField()).forEach(field -> {
-
-
-            if (ClassName.get(field.asType()).isPrimitive()) {
-                MessagingUtils.error(messager, field, "Primitive types are not supported while using @GenerateDao");
-            }
-
-            if ((field.getAnnotation(Transient.class) == null) && (field.getAnnotation
-                    (OneToMany.class) == null) && (field.getAnnotation(ManyToOne.class) == null)) {
-
-                String parameterName = "searchQuery";
-                String getMethod = AnnotatedFieldUtils.getMethod(field);
-
-                addToPredicateList.beginControlFlow("if ($N.$N != null)", parameterName,
-                        getMethod)
+        if (CreateHqlUtils.supportsSearchMask(model)) {
+            addToPredicateList.addModifiers(Modifier.FINAL);
+        }
+        String parameterName = "searchQuery";
+        for (FieldModel field : model.getFields()) {
+            if (field.isSearchable()) {
+                addToPredicateList.beginControlFlow("if ($N.$N != null)", parameterName, field.getGetter())
                         .addStatement("$N.add($N.equal($N.get($S), $N.$N))", "searchRestrictions",
-                                "criteriaBuilder", "from", field.getSimpleName(), parameterName, getMethod)
+                                "criteriaBuilder", "from", field.getName(), parameterName, field.getGetter())
+                        .endControlFlow();
+            } else if (field.isSearchableAssociation()) {
+                addToPredicateList.beginControlFlow("if ($L)", createSearchValueCheckCodeBlock(parameterName, field))
+                        .addStatement("$N.add($N.equal($N.get($S).get($S), $N.$N))", "searchRestrictions",
+                                "criteriaBuilder", "from", field.getName(), field.getAssociationIdField().getName(),
+                                parameterName, field.getSearchGetter())
                         .endControlFlow();
             }
-        });
+        }
         return addToPredicateList.addStatement("return searchRestrictions").build();
 
 
     }
 
     /**
-     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
+     * @param parameterName Name of the example object parameter
+     * @param field         Searchable field or searchable association field of the entity class
+     * @return Returns the condition under which the field of the example restricts a search. An association field
+     * restricts a search once the id of the associated entity is set, so an id-only stub is enough. A primitive id is
+     * always set, the association then restricts a search once it is set.
+     */
+    public static CodeBlock createSearchValueCheckCodeBlock(final String parameterName, final FieldModel field) {
+        if (field.isSearchableAssociation() && !field.getAssociationIdField().getType().isPrimitive()) {
+            return CodeBlock.of("$N.$N != null && $N.$N != null", parameterName, field.getGetter(), parameterName,
+                    field.getSearchGetter());
+        }
+        return CodeBlock.of("$N.$N != null", parameterName, field.getGetter());
+    }
+
+    /**
+     * @param model Model of the entity class, holding the query options {@linkplain GenerateDao#readOnlySearch()} and
+     *              {@linkplain DaoCache}
      * @return Generates search method with user defined Predicate {@linkplain Predicate} list and adds attribute to
      * that list only. The method returns {@linkplain Query}. The method "getSearchQueryWithPredicateList" is only
      * generated when {@linkplain GenerateDao#supportSearchVariations()} is true.
      * @see "/testfiles/generatedao_output1.txt #getSearchQueryWithPredicateList"
      */
-    public static MethodSpec createGetSearchQueryMethodWithPredicateList(final ClassName entityClass) {
+    public static MethodSpec createGetSearchQueryMethodWithPredicateList(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
         return MethodSpec.methodBuilder("getSearchQueryWithPredicateList")
                 .returns(ParameterizedTypeName.get(ClassName.get(Query.class), entityClass))
                 .addModifiers(Modifier.PROTECTED)
@@ -195,18 +334,20 @@ public final class CreateDaoUtils {
                 .addStatement("$T<$T> select = $N.select($N)", CriteriaQuery.class, entityClass, "query", "from")
                 .addStatement("select = $N.where($N.toArray(new $T[$N.size()]))", "select", "searchRestrictions",
                         Predicate.class, "searchRestrictions")
-                .addStatement("return $N.createQuery($N)", "session", "select")
+                .addCode(createReturnSearchQueryCodeBlock(model, false))
                 .build();
 
 
     }
 
     /**
-     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
+     * @param model Model of the entity class, holding the query options {@linkplain GenerateDao#readOnlySearch()} and
+     *              {@linkplain DaoCache}
      * @return Generates simple search method.The generated search method returns {@linkplain Query}.
      * @see "/testfiles/generatedao_output1.txt #getSearchQuery"
      */
-    public static MethodSpec createGetSearchQueryMethod(final ClassName entityClass) {
+    public static MethodSpec createGetSearchQueryMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
 
         return MethodSpec.methodBuilder("getSearchQuery")
                 .addModifiers(Modifier.PROTECTED)
@@ -224,19 +365,22 @@ public final class CreateDaoUtils {
                         "criteriaBuilder", "from")
                 .addStatement("select = $N.where($N.toArray(new $T[$N.size()]))", "select", "searchRestrictions",
                         Predicate.class, "searchRestrictions")
-                .addStatement("return $N.createQuery($N)", "session", "select")
+                .addCode(createReturnSearchQueryCodeBlock(model, false))
                 .build();
 
     }
 
     /**
-     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
+     * @param model       Model of the entity class, holding the query options {@linkplain
+     *                    GenerateDao#readOnlySearch()} and {@linkplain DaoCache}
+     * @param idAttribute Name of the field annotated with @Id {@linkplain Id}, used as the keyset tie-breaker
      * @return Generates search method with SearchMeta {@linkplain SearchMeta}.The generated search method returns
      * {@linkplain Query}.The method "getSearchQueryWithParams" is only generated when {@linkplain
      * GenerateDao#supportSearchVariations()} is true.
      * @see "/testfiles/generatedao_output1.txt #getSearchQueryWithParams"
      */
-    public static MethodSpec createGetSearchQueryMethodWithParams(final ClassName entityClass) {
+    public static MethodSpec createGetSearchQueryMethodWithParams(final EntityModel model, final String idAttribute) {
+        ClassName entityClass = model.getEntityClass();
 
         return MethodSpec.methodBuilder("getSearchQueryWithParams")
                 .addModifiers(Modifier.PROTECTED)
@@ -250,33 +394,30 @@ public final class CreateDaoUtils {
                         "criteriaBuilder", entityClass)
                 .addStatement("$T<$T> from = $N.from($T.class)", Root.class, entityClass, "query", entityClass)
                 .addStatement("$T<$T> select = $N.select($N)", CriteriaQuery.class, entityClass, "query", "from")
-                .beginControlFlow("if ($N.getSortBy() != null)", "searchParams")
-                .addStatement("$T $N = $N.getSortBy()", String.class, "sortByValue", "searchParams")
-                .beginControlFlow("if ($N.getSortType() == ($T.DESC))", "searchParams", SortType.class)
-                .addStatement("$N.orderBy($N.desc(from.get($N)))", "select", "criteriaBuilder", "sortByValue")
-                .endControlFlow()
-                .beginControlFlow("else")
-                .addStatement("$N.orderBy($N.asc(from.get($N)))", "select", "criteriaBuilder", "sortByValue")
-                .endControlFlow()
-                .endControlFlow()
+                .addCode(createSortCodeBlock(idAttribute))
                 .addStatement("$T<$T> searchRestrictions = getPredicateList($N,$N,$N)", List.class, Predicate.class,
                         "searchQuery",
                         "criteriaBuilder", "from")
+                .addCode(createKeysetRestrictionCodeBlock(false))
                 .addStatement("select = $N.where($N.toArray(new $T[$N.size()]))", "select", "searchRestrictions",
                         Predicate.class, "searchRestrictions")
-                .addStatement("return $N.createQuery($N)", "session", "select")
+                .addCode(createReturnSearchQueryCodeBlock(model, true))
                 .build();
 
     }
 
     /**
-     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
+     * @param model       Model of the entity class, holding the query options {@linkplain
+     *                    GenerateDao#readOnlySearch()} and {@linkplain DaoCache}
+     * @param idAttribute Name of the field annotated with @Id {@linkplain Id}, used as the keyset tie-breaker
      * @return Generates search method with SearchMeta {@linkplain SearchMeta} and user defined Predicate {@linkplain
      * Predicate} list and returns Query {@linkplain Query}. The method "getSearchQueryWithParamsAndPredicateList" is
      * only generated when {@linkplain GenerateDao#supportSearchVariations()} is true.
      * @see "/testfiles/generatedao_output1.txt #getSearchQueryWithParamsAndPredicateList"
      */
-    public static MethodSpec createGetSearchQueryWithParamsAndPredicateList(final ClassName entityClass) {
+    public static MethodSpec createGetSearchQueryWithParamsAndPredicateList(final EntityModel model,
+                                                                           final String idAttribute) {
+        ClassName entityClass = model.getEntityClass();
         return MethodSpec.methodBuilder("getSearchQueryWithParamsAndPredicateList")
                 .addModifiers(Modifier.PROTECTED)
                 .returns(ParameterizedTypeName.get(ClassName.get(Query.class), entityClass))
@@ -292,22 +433,28 @@ public final class CreateDaoUtils {
                 .addStatement("$T session = this.currentSession()", Session.class)
                 .addStatement("$T criteriaBuilder = $N.getCriteriaBuilder()", CriteriaBuilder.class, "session")
                 .addStatement("$T<$T> select = $N.select($N)", CriteriaQuery.class, entityClass, "query", "from")
-                .beginControlFlow("if ($N.getSortBy() != null)", "searchParams")
-                .addStatement("$T $N = $N.getSortBy()", String.class, "sortByValue", "searchParams")
-                .beginControlFlow("if ($N.getSortType() == ($T.DESC))", "searchParams", SortType.class)
-                .addStatement("$N.orderBy($N.desc(from.get($N)))", "select", "criteriaBuilder", "sortByValue")
-                .endControlFlow()
-                .beginControlFlow("else")
-                .addStatement("$N.orderBy($N.asc(from.get($N)))", "select", "criteriaBuilder", "sortByValue")
-                .endControlFlow()
-                .endControlFlow()
+                .addCode(createSortCodeBlock(idAttribute))
+                .addCode(createKeysetRestrictionCodeBlock(true))
                 .addStatement("select = $N.where($N.toArray(new $T[$N.size()]))", "select", "searchRestrictions",
                         Predicate.class, "searchRestrictions")
-                .addStatement("return $N.createQuery($N)", "session", "select")
+                .addCode(createReturnSearchQueryCodeBlock(model, true))
                 .build();
 
     }
 
+    /**
+     * @return Computes the page "querySize" and "queryIndex" of a search from SearchMeta {@linkplain SearchMeta}. The
+     * first result is ignored when a keyset cursor {@linkplain SearchMeta#getAfter()} is set.
+     */
+    public static CodeBlock createPageCodeBlock() {
+        return CodeBlock.builder()
+                .addStatement("$T querySize = $N.getMaxResults() != null ? $N.getMaxResults() : $L", Integer.class,
+                        "searchParams", "searchParams", defaultMaxResults)
+                .addStatement("$T queryIndex = $N.getAfter() == null && $N.getFirstResult() != null ? $N"
+                        + ".getFirstResult() : $L", Integer.class, "searchParams", "searchParams", "searchParams", 0)
+                .build();
+    }
+
     /**
      * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
      * @return Generates a overloaded search method for the query generated in {@linkplain
@@ -328,7 +475,7 @@ public final class CreateDaoUtils {
     /**
      * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
      * @return Generates a overloaded search method for the query generated in {@linkplain
-     * #createGetSearchQueryMethodWithParams(ClassName)}. The generated method returns the list of entity objects.The
+     * #createGetSearchQueryMethodWithParams(ClassName, String)}. The generated method returns the list of entity objects.The
      * method "searchQuery" is only generated when {@linkplain GenerateDao#supportSearchVariations()} is true.
      * @see "/testfiles/generatedao_output1.txt #search"
      */
@@ -341,10 +488,7 @@ public final class CreateDaoUtils {
                         .build())
                 .addParameter(ParameterSpec.builder(SearchMeta.class, "searchParams").build())
                 .beginControlFlow("if (searchParams != null)")
-                .addStatement("$T querySize = $N.getMaxResults() != null ? $N.getMaxResults() : $L", Integer.class,
-                        "searchParams", "searchParams", defaultMaxResults)
-                .addStatement("$T queryIndex = $N.getFirstResult() != null ? $N.getFirstResult() : $L", Integer
-                        .class, "searchParams", "searchParams", 0)
+                .addCode(createPageCodeBlock())
                 .addStatement("return $N($N,$N).setMaxResults($N).setFirstResult($N).list()",
                         "getSearchQueryWithParams", "searchQuery", "searchParams", "querySize", "queryIndex")
                 .endControlFlow()
@@ -400,10 +544,7 @@ public final class CreateDaoUtils {
                         entityClass), "query").build())
 
                 .beginControlFlow("if (searchParams != null)")
-                .addStatement("$T querySize = $N.getMaxResults() != null ? $N.getMaxResults() : $L", Integer.class,
-                        "searchParams", "searchParams", defaultMaxResults)
-                .addStatement("$T queryIndex = $N.getFirstResult() != null ? $N.getFirstResult() : $L", Integer
-                        .class, "searchParams", "searchParams", 0)
+                .addCode(createPageCodeBlock())
                 .addStatement("return $N($N,$N,$N,$N,$N).setMaxResults($N).setFirstResult($N).list()",
                         "getSearchQueryWithParamsAndPredicateList", "searchQuery", "searchParams",
                         "searchRestrictions", "from", "query", "querySize", "queryIndex")
@@ -414,34 +555,101 @@ public final class CreateDaoUtils {
     }
 
     /**
-     * @param entityClass      Entity class annotated with {@linkplain GenerateDao} annotation
-     * @param annotatedElement Element of the entity class
-     * @param typeElement      Represents a class or interface annotated element
-     * @param messager         Messager for logging
+     * @param model    Model of the entity class annotated with {@linkplain GenerateDao} annotation
+     * @param messager Messager for logging
      * @return Generates method which returns a row of the entity table with value of the field annotated with @Id
      * {@linkplain Id}
      * @see "/testfiles/generatedao_output1.txt #getById()"
      */
-    public static MethodSpec createGetByIdMethod(final ClassName entityClass, final Element annotatedElement,
-                                                 final TypeElement typeElement, final Messager messager) {
-
-        for (Element variableElement : annotatedElement.getEnclosedElements()) {
-            if (variableElement instanceof VariableElement && variableElement.getAnnotation(Id.class) != null) {
-                TypeName className = ClassName.get(variableElement.asType());
-                return MethodSpec.methodBuilder("getById")
-                        .addModifiers(Modifier.PUBLIC)
-                        .returns(entityClass)
-                        .addParameter(ParameterSpec.builder(className, "id").build())
-                        .addStatement("return get($N)", "id")
-                        .build();
-
-            }
+    public static MethodSpec createGetByIdMethod(final EntityModel model, final Messager messager) {
+        ClassName entityClass = model.getEntityClass();
+        TypeElement typeElement = model.getTypeElement();
+        if (model.getIdField() == null) {
+            MessagingUtils.error(messager, typeElement, "No field found with @Id annotation in class %s",
+                    AnnotatedClassUtils.getSimpleName(typeElement));
+            throw new AssertionError("No field found with @Id annotation in class " + AnnotatedClassUtils.getSimpleName(typeElement));
+        }
+        MethodSpec.Builder getById = MethodSpec.methodBuilder("getById")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(entityClass)
+                .addParameter(ParameterSpec.builder(model.getIdField().getType(), "id").build());
+        DaoCache daoCache = model.getDaoCache();
+        if (daoCache != null && !model.isCacheable()) {
+            MessagingUtils.warning(messager, typeElement, "@DaoCache needs the entity %s to be cacheable for "
+                    + "getById to use the second level cache, annotate it with @Cacheable or @Cache",
+                    AnnotatedClassUtils.getSimpleName(typeElement));
         }
+        if (daoCache != null && daoCache.cacheMode() != CacheMode.NORMAL) {
+            return getById.addCode(CreateNearCacheUtils.createGetByIdCodeBlock(model,
+                    CodeBlock.of("this.currentSession().byId($T.class).with($T.$L).load($N)", entityClass,
+                            CacheMode.class, daoCache.cacheMode().name(), "id")))
+                    .build();
+        }
+        return getById.addCode(CreateNearCacheUtils.createGetByIdCodeBlock(model,
+                CodeBlock.of("get($N)", "id")))
+                .build();
+    }
 
-        MessagingUtils.error(messager, annotatedElement, "No field found with @Id annotation in class %s",
-                AnnotatedClassUtils.getSimpleName(typeElement));
-        throw new AssertionError("No field found with @Id annotation in class " + AnnotatedClassUtils.getSimpleName(typeElement));
+    /**
+     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
+     * @param idField     Field of the entity class annotated with @Id {@linkplain Id}
+     * @param batchSize   Maximum number of ids bound in a single IN list {@linkplain GenerateDao#idBatchSize()}
+     * @return Generates method which loads the entities of many ids at once, keyed by their id. Ids are loaded
+     * through {@linkplain Session#byMultipleIds(Class)} in IN lists of at most batchSize ids and ids already present
+     * in the session are served from it without hitting the database. Ids with no row are left out of the map.
+     * @see "/testfiles/generatedao_output1.txt #getByIds"
+     */
+    public static MethodSpec createGetByIdsMethod(final ClassName entityClass, final FieldModel idField,
+                                                  final int batchSize) {
+        TypeName idType = idField.getType().box();
+        return MethodSpec.methodBuilder("getByIds")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(Map.class), idType, entityClass))
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                        idType), "ids").build())
+                .addStatement("$T<$T, $T> entities = new $T<>()", Map.class, idType, entityClass, LinkedHashMap.class)
+                .beginControlFlow("if ($N.isEmpty())", "ids")
+                .addStatement("return entities")
+                .endControlFlow()
+                .addStatement("$T<$T> loaded = this.currentSession().byMultipleIds($T.class).enableSessionCheck(true)"
+                                + ".enableOrderedReturn(false).withBatchSize($L).multiLoad(new $T<>($N))", List.class,
+                        entityClass, entityClass, batchSize, ArrayList.class, "ids")
+                .beginControlFlow("for ($T entity : $N)", entityClass, "loaded")
+                .beginControlFlow("if ($N != null)", "entity")
+                .addStatement("$N.put($N.$N, $N)", "entities", "entity", idField.getGetter(), "entity")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return entities")
+                .build();
+    }
 
+    /**
+     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
+     * @param idField     Field of the entity class annotated with @Id {@linkplain Id}
+     * @return Generates an overload of "getByIds" taking a primitive array, so callers holding long or int ids do not
+     * have to box them into a collection. Returns null for any other id type.
+     * @see "/testfiles/generatedao_output2.txt #getByIds(int[])"
+     */
+    public static MethodSpec createGetByPrimitiveIdsMethod(final ClassName entityClass, final FieldModel idField) {
+        TypeName idType = idField.getType().box();
+        TypeName primitiveType;
+        if (idType.equals(ClassName.get(Long.class))) {
+            primitiveType = TypeName.LONG;
+        } else if (idType.equals(ClassName.get(Integer.class))) {
+            primitiveType = TypeName.INT;
+        } else {
+            return null;
+        }
+        return MethodSpec.methodBuilder("getByIds")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(Map.class), idType, entityClass))
+                .addParameter(ParameterSpec.builder(ArrayTypeName.of(primitiveType), "ids").build())
+                .addStatement("$T<$T> boxedIds = new $T<>($N.length)", List.class, idType, ArrayList.class, "ids")
+                .beginControlFlow("for ($T id : $N)", primitiveType, "ids")
+                .addStatement("$N.add($N)", "boxedIds", "id")
+                .endControlFlow()
+                .addStatement("return getByIds($N)", "boxedIds")
+                .build();
     }
 
     /**
@@ -460,6 +668,212 @@ public final class CreateDaoUtils {
 
     }
 
+    /**
+     * @param model      Model of the entity class, holding the query options {@linkplain GenerateDao#readOnlySearch()}
+     *                   and {@linkplain DaoCache}
+     * @param withParams Whether the query takes SearchMeta {@linkplain SearchMeta}, whose read only flag {@linkplain
+     *                   SearchMeta#getReadOnly()} then overrides the one of the entity
+     * @return Returns the typed query of the Criteria query "select". Read only entities are not snapshotted for dirty
+     * checking and are skipped on flush.
+     */
+    private static CodeBlock createReturnSearchQueryCodeBlock(final EntityModel model, final boolean withParams) {
+        ClassName entityClass = model.getEntityClass();
+        CodeBlock queryOptions = createSearchQueryOptionsCodeBlock("typedQuery", model);
+        if (!withParams && queryOptions.isEmpty()) {
+            return CodeBlock.builder().addStatement("return $N.createQuery($N)", "session", "select").build();
+        }
+        CodeBlock.Builder returnSearchQuery = CodeBlock.builder()
+                .addStatement("$T<$T> typedQuery = $N.createQuery($N)", Query.class, entityClass, "session", "select")
+                .add(queryOptions);
+        if (withParams) {
+            returnSearchQuery.beginControlFlow("if ($N.getReadOnly() != null)", "searchParams")
+                    .addStatement("$N.setReadOnly($N.getReadOnly())", "typedQuery", "searchParams")
+                    .endControlFlow();
+        }
+        return returnSearchQuery.addStatement("return $N", "typedQuery").build();
+    }
+
+    /**
+     * @param query Name of the generated query variable
+     * @param model Model of the entity class
+     * @return Applies the query options of the entity to a generated search query. Read only entities {@linkplain
+     * GenerateDao#readOnlySearch()} are not snapshotted for dirty checking and are skipped on flush, cacheable queries
+     * {@linkplain DaoCache#searches()} are stored in the query cache region of the dao, with the cache mode
+     * {@linkplain DaoCache#cacheMode()} of the dao.
+     */
+    public static CodeBlock createSearchQueryOptionsCodeBlock(final String query, final EntityModel model) {
+        CodeBlock.Builder queryOptions = CodeBlock.builder();
+        if (model.getGenerateDao().readOnlySearch()) {
+            queryOptions.addStatement("$N.setReadOnly(true)", query);
+        }
+        DaoCache daoCache = model.getDaoCache();
+        if (daoCache != null && daoCache.searches()) {
+            queryOptions.addStatement("$N.setCacheable(true)", query)
+                    .addStatement("$N.setCacheRegion($N)", query, "SEARCH_CACHE_REGION");
+        }
+        if (daoCache != null && daoCache.cacheMode() != CacheMode.NORMAL) {
+            queryOptions.addStatement("$N.setCacheMode($T.$L)", query, CacheMode.class, daoCache.cacheMode().name());
+        }
+        return queryOptions.build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates the constant holding the query cache region {@linkplain DaoCache#region()} of the search
+     * queries, null if the searches of the entity are not cached.
+     * @see "/testfiles/generatedao_output7.txt #SEARCH_CACHE_REGION"
+     */
+    public static FieldSpec createSearchCacheRegionField(final EntityModel model) {
+        DaoCache daoCache = model.getDaoCache();
+        if (daoCache == null || !daoCache.searches()) {
+            return null;
+        }
+        String region = daoCache.region();
+        if (region.isEmpty()) {
+            region = model.getEntityClass().toString() + ".search";
+        }
+        return FieldSpec.builder(String.class, "SEARCH_CACHE_REGION", Modifier.PUBLIC, Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$S", region)
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
+     * @return Generates search method which returns read only entities. They are not snapshotted for dirty checking,
+     * are skipped on flush and changes made to them are never written back.
+     * @see "/testfiles/generatedao_output1.txt #searchReadOnly"
+     */
+    public static MethodSpec createSearchReadOnlyMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("searchReadOnly")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("return $N($N).setReadOnly(true).list()", "getSearchQuery", "searchQuery")
+                .build();
+    }
+
+    /**
+     * @param idAttribute Name of the field annotated with @Id {@linkplain Id}
+     * @return Sorts the generated query on the SearchMeta {@linkplain SearchMeta} attribute followed by the id, so
+     * that rows sharing a sort value keep a stable order between pages.
+     */
+    private static CodeBlock createSortCodeBlock(final String idAttribute) {
+        return CodeBlock.builder()
+                .beginControlFlow("if ($N.getSortBy() != null)", "searchParams")
+                .addStatement("$T $N = $N.getSortBy()", String.class, "sortByValue", "searchParams")
+                .beginControlFlow("if ($N.getSortType() == ($T.DESC))", "searchParams", SortType.class)
+                .addStatement("$N.orderBy($N.desc(from.get($N)), $N.desc(from.get($S)))", "select", "criteriaBuilder",
+                        "sortByValue", "criteriaBuilder", idAttribute)
+                .endControlFlow()
+                .beginControlFlow("else")
+                .addStatement("$N.orderBy($N.asc(from.get($N)), $N.asc(from.get($S)))", "select", "criteriaBuilder",
+                        "sortByValue", "criteriaBuilder", idAttribute)
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("else if ($N.getAfter() != null)", "searchParams")
+                .addStatement("$N.orderBy($N.asc(from.get($S)))", "select", "criteriaBuilder", idAttribute)
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * @param copyRestrictions true when the restrictions are supplied by the caller and must be left untouched
+     * @return Adds the keyset predicate to the search restrictions when SearchMeta {@linkplain SearchMeta} carries a
+     * cursor.
+     */
+    private static CodeBlock createKeysetRestrictionCodeBlock(final boolean copyRestrictions) {
+        CodeBlock.Builder keysetRestriction = CodeBlock.builder()
+                .beginControlFlow("if ($N.getAfter() != null)", "searchParams");
+        if (copyRestrictions) {
+            keysetRestriction.addStatement("$N = new $T<>($N)", "searchRestrictions", ArrayList.class,
+                    "searchRestrictions");
+        }
+        return keysetRestriction.addStatement("$N.add(getKeysetPredicate($N, $N, $N))", "searchRestrictions", "searchParams",
+                        "criteriaBuilder", "from")
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
+     * @param idAttribute Name of the field annotated with @Id {@linkplain Id}
+     * @return Generates method which restricts a search to the rows after the SearchMeta {@linkplain
+     * SearchMeta#getAfter()} cursor, i.e. (sortBy, id) &gt; (cursor sort value, cursor id) for ascending order. A
+     * cursor issued for another sort is rejected.
+     * @see "/testfiles/generatedao_output1.txt #getKeysetPredicate"
+     */
+    public static MethodSpec createKeysetPredicateMethod(final ClassName entityClass, final String idAttribute) {
+        return MethodSpec.methodBuilder("getKeysetPredicate")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(Predicate.class)
+                .addParameter(ParameterSpec.builder(SearchMeta.class, "searchParams").build())
+                .addParameter(ParameterSpec.builder(CriteriaBuilder.class, "criteriaBuilder").build())
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Root.class), entityClass),
+                        "from").build())
+                .addStatement("$T cursor = $T.decode($N.getAfter(), $N)", SearchCursor.class, SearchCursor.class,
+                        "searchParams", "searchParams")
+                .addStatement("$T<$T> idPath = $N.get($S)", Path.class, Comparable.class, "from", idAttribute)
+                .beginControlFlow("if ($N.getSortBy() == null)", "searchParams")
+                .addStatement("return $N.greaterThan(idPath, cursor.getId())", "criteriaBuilder")
+                .endControlFlow()
+                .addStatement("$T<$T> sortPath = $N.get($N.getSortBy())", Path.class, Comparable.class, "from",
+                        "searchParams")
+                .beginControlFlow("if ($N.getSortType() == ($T.DESC))", "searchParams", SortType.class)
+                .addStatement("return $N.or($N.lessThan(sortPath, cursor.getSortValue()), $N.and($N.equal(sortPath, "
+                                + "cursor.getSortValue()), $N.lessThan(idPath, cursor.getId())))", "criteriaBuilder",
+                        "criteriaBuilder", "criteriaBuilder", "criteriaBuilder", "criteriaBuilder")
+                .endControlFlow()
+                .addStatement("return $N.or($N.greaterThan(sortPath, cursor.getSortValue()), $N.and($N.equal(sortPath, "
+                                + "cursor.getSortValue()), $N.greaterThan(idPath, cursor.getId())))", "criteriaBuilder",
+                        "criteriaBuilder", "criteriaBuilder", "criteriaBuilder", "criteriaBuilder")
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class annotated with {@linkplain GenerateDao}
+     * @return Generates method which reads the value of the sorted attribute from an entity object, used to build
+     * the keyset cursor of a page.
+     * @see "/testfiles/generatedao_output1.txt #getSortValue"
+     */
+    public static MethodSpec createGetSortValueMethod(final EntityModel model) {
+        MethodSpec.Builder getSortValue = MethodSpec.methodBuilder("getSortValue")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(Object.class)
+                .addParameter(ParameterSpec.builder(model.getEntityClass(), "entity").build())
+                .addParameter(ParameterSpec.builder(String.class, "sortBy").build())
+                .beginControlFlow("if ($N == null)", "sortBy")
+                .addStatement("return null")
+                .endControlFlow()
+                .beginControlFlow("switch ($N)", "sortBy");
+        for (FieldModel field : model.getSearchableFields()) {
+            getSortValue.addStatement("case $S: return $N.$N", field.getName(), "entity", field.getGetter());
+        }
+        return getSortValue.addStatement("default: throw new $T($S + $N)", ProcessingException.class,
+                "Unsupported sort attribute ", "sortBy")
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain GenerateDao} annotation
+     * @param idField     Field of the entity class annotated with @Id {@linkplain Id}
+     * @return Generates method which builds the keyset cursor {@linkplain SearchCursor} pointing after the last row
+     * of a page. The cursor is passed back through {@linkplain SearchMeta#setAfter(String)} to fetch the next page,
+     * sorted the same way, and is refused after a row whose sorted attribute is null.
+     * @see "/testfiles/generatedao_output1.txt #getNextCursor"
+     */
+    public static MethodSpec createNextCursorMethod(final ClassName entityClass, final FieldModel idField) {
+        return MethodSpec.methodBuilder("getNextCursor")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(String.class)
+                .addParameter(ParameterSpec.builder(entityClass, "lastRow").build())
+                .addParameter(ParameterSpec.builder(SearchMeta.class, "searchParams").build())
+                .addStatement("return $T.encode($N, getSortValue($N, $N.getSortBy()), $N.$N)", SearchCursor.class,
+                        "searchParams", "lastRow", "searchParams", "lastRow", idField.getGetter())
+                .build();
+    }
+
     /**
      * Validation for the class annotated with {@linkplain GenerateDao}.
      *
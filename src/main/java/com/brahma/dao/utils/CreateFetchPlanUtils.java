@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.annotations.FetchPlan;
+import com.brahma.dao.meta.SearchMeta;
+import com.brahma.dao.model.AssociationKind;
+import com.brahma.dao.model.EntityModel;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.persistence.EntityGraph;
+import javax.persistence.Subgraph;
+import javax.ws.rs.ProcessingException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the search methods of the fetch plans {@linkplain FetchPlan} of the dao class. A fetch plan is applied as
+ * a "javax.persistence.fetchgraph" hint on the regular search queries, so the associations of the plan are fetched
+ * by joins in the same query and the restrictions stay those of the other search methods.
+ */
+public final class CreateFetchPlanUtils {
+    /**
+     * JPA hint applying an entity graph as a fetch graph.
+     */
+    private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    /**
+     *
+     */
+    private CreateFetchPlanUtils() {
+
+    }
+
+    /**
+     * @param model     Model of the entity class
+     * @param fetchPlan Fetch plan declared on the entity class
+     * @param messager  Used to report errors, warnings, and other notices
+     * @return Returns true if the name of the fetch plan is a Java identifier and the plan either names an entity
+     * graph or lists dotted paths, without empty associations, starting with a @ManyToOne or @OneToOne field of the
+     * entity class. Errors are reported otherwise.
+     */
+    public static boolean isValidFetchPlan(final EntityModel model, final FetchPlan fetchPlan,
+                                           final Messager messager) {
+        Element annotatedElement = model.getTypeElement();
+        if (!SourceVersion.isIdentifier(fetchPlan.name())) {
+            MessagingUtils.error(messager, annotatedElement, "Fetch plan name \"%s\" should be a Java identifier",
+                    fetchPlan.name());
+            return false;
+        }
+        if (fetchPlan.entityGraph().isEmpty() == (fetchPlan.paths().length == 0)) {
+            MessagingUtils.error(messager, annotatedElement, "Fetch plan %s should declare either paths or an entity "
+                    + "graph", fetchPlan.name());
+            return false;
+        }
+        boolean valid = true;
+        for (String path : fetchPlan.paths()) {
+            if (Arrays.asList(path.split("\\.", -1)).contains("")) {
+                MessagingUtils.error(messager, annotatedElement, "Fetch plan %s path \"%s\" has an empty association",
+                        fetchPlan.name(), path);
+                valid = false;
+                continue;
+            }
+            String association = path.split("\\.")[0];
+            boolean found = model.getFields().stream()
+                    .filter(field -> field.getAssociationKind() == AssociationKind.MANY_TO_ONE
+                            || field.getAssociationKind() == AssociationKind.ONE_TO_ONE)
+                    .anyMatch(field -> field.getName().equals(association));
+            if (!found) {
+                MessagingUtils.error(messager, annotatedElement, "Fetch plan %s path %s should start with a "
+                        + "@ManyToOne or @OneToOne field", fetchPlan.name(), path);
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param fetchPlan   Fetch plan declared on the entity class
+     * @return Generates method which returns the entity graph of the fetch plan, either the named entity graph or a
+     * graph built from the paths of the plan.
+     * @see "/testfiles/generatedao_output9.txt #getWithParentFetchGraph"
+     */
+    public static MethodSpec createFetchGraphMethod(final ClassName entityClass, final FetchPlan fetchPlan) {
+        MethodSpec.Builder fetchGraph = MethodSpec.methodBuilder("get" + capitalize(fetchPlan.name()) + "FetchGraph")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(ParameterizedTypeName.get(ClassName.get(EntityGraph.class),
+                        WildcardTypeName.subtypeOf(Object.class)));
+        if (!fetchPlan.entityGraph().isEmpty()) {
+            return fetchGraph.addStatement("return this.currentSession().getEntityGraph($S)", fetchPlan.entityGraph())
+                    .build();
+        }
+        fetchGraph.addStatement("$T<$T> graph = this.currentSession().createEntityGraph($T.class)", EntityGraph.class,
+                entityClass, entityClass);
+        addGraphNodes(fetchGraph, "graph", getPathTree(fetchPlan.paths()));
+        return fetchGraph.addStatement("return $N", "graph").build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param fetchPlan   Fetch plan declared on the entity class
+     * @return Generates search method which fetches the associations of the fetch plan along with the entities.
+     * @see "/testfiles/generatedao_output9.txt #searchWithParent"
+     */
+    public static MethodSpec createFetchPlanSearchMethod(final ClassName entityClass, final FetchPlan fetchPlan) {
+        return MethodSpec.methodBuilder("search" + capitalize(fetchPlan.name()))
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("return getSearchQuery($N).setHint($S, $N()).list()", "searchQuery", FETCH_GRAPH_HINT,
+                        "get" + capitalize(fetchPlan.name()) + "FetchGraph")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param fetchPlan   Fetch plan declared on the entity class
+     * @return Generates search method with SearchMeta {@linkplain SearchMeta} which fetches the associations of the
+     * fetch plan along with a page of entities. Only generated when {@linkplain
+     * com.brahma.dao.annotations.GenerateDao#supportSearchVariations()} is true.
+     * @see "/testfiles/generatedao_output9.txt #searchWithParent(ClassName, SearchMeta)"
+     */
+    public static MethodSpec createFetchPlanSearchMethodWithParams(final ClassName entityClass,
+                                                                   final FetchPlan fetchPlan) {
+        return MethodSpec.methodBuilder("search" + capitalize(fetchPlan.name()))
+                .addModifiers(Modifier.PUBLIC)
+                .addException(ProcessingException.class)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(SearchMeta.class, "searchParams").build())
+                .beginControlFlow("if (searchParams != null)")
+                .addCode(CreateDaoUtils.createPageCodeBlock())
+                .addStatement("return getSearchQueryWithParams($N, $N).setHint($S, $N()).setMaxResults($N)"
+                                + ".setFirstResult($N).list()", "searchQuery", "searchParams", FETCH_GRAPH_HINT,
+                        "get" + capitalize(fetchPlan.name()) + "FetchGraph", "querySize", "queryIndex")
+                .endControlFlow()
+                .addStatement("throw new $T($S)", ProcessingException.class, "searchParams object found null ")
+                .build();
+    }
+
+    /**
+     * Adds the attribute nodes and subgraphs of a level of the path tree to a graph.
+     *
+     * @param fetchGraph Method building the graph
+     * @param graph      Name of the generated graph or subgraph variable
+     * @param pathTree   Associations of the level, mapped to the associations fetched below them
+     */
+    @SuppressWarnings("unchecked")
+    private static void addGraphNodes(final MethodSpec.Builder fetchGraph, final String graph,
+                                      final Map<String, Map> pathTree) {
+        for (Map.Entry<String, Map> node : pathTree.entrySet()) {
+            if (node.getValue().isEmpty()) {
+                fetchGraph.addStatement("$N.addAttributeNodes($S)", graph, node.getKey());
+            } else {
+                String subgraph = node.getKey() + "Graph";
+                if (!"graph".equals(graph)) {
+                    subgraph = graph.substring(0, graph.length() - "Graph".length()) + capitalize(subgraph);
+                }
+                fetchGraph.addStatement("$T<$T> $N = $N.addSubgraph($S)", Subgraph.class, TypeName.OBJECT, subgraph,
+                        graph, node.getKey());
+                addGraphNodes(fetchGraph, subgraph, node.getValue());
+            }
+        }
+    }
+
+    /**
+     * @param paths Dotted association paths
+     * @return Returns the paths as a tree of association names, shared prefixes appearing once.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map> getPathTree(final String[] paths) {
+        Map<String, Map> pathTree = new LinkedHashMap<>();
+        for (String path : paths) {
+            Map<String, Map> level = pathTree;
+            for (String association : path.split("\\.")) {
+                level = level.computeIfAbsent(association, name -> new LinkedHashMap<>());
+            }
+        }
+        return pathTree;
+    }
+
+    /**
+     * @param name Name of a fetch plan or an association
+     * @return Returns the name with its first letter in upper case.
+     */
+    private static String capitalize(final String name) {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import org.hibernate.query.Query;
+
+import javax.lang.model.element.Modifier;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Generates the search query of the dao class as a parameterized HQL string instead of a Criteria tree. The shape of
+ * a search, that is which fields of the example are set, is encoded as a bit mask and the HQL string of every shape is
+ * built once and cached, so a call only binds parameters and Hibernate reuses its query plan for the string. The bit
+ * of a field is its index in {@linkplain EntityModel#getSearchFields()}.
+ * <p>
+ * The HQL strings and "getPredicateList" express the same restrictions twice, so with the search mask
+ * "getPredicateList", "getSearchMask" and "getSearchHql" are generated final: a subclass cannot change the
+ * restrictions of some searches and not of the others.
+ */
+public final class CreateHqlUtils {
+    /**
+     * Maximum number of searchable fields encoded in the long bit mask.
+     */
+    private static final int MAX_MASK_FIELDS = Long.SIZE;
+
+    /**
+     *
+     */
+    private CreateHqlUtils() {
+
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns true if the searchable fields of the entity fit in the bit mask. Entities with more fields keep
+     * the Criteria based "getSearchQuery".
+     */
+    public static boolean supportsSearchMask(final EntityModel model) {
+        return model.getSearchFields().size() <= MAX_MASK_FIELDS;
+    }
+
+    /**
+     * @return Generates the cache of HQL strings keyed by the search mask, shared by all instances of the dao.
+     * @see "/testfiles/generatedao_output1.txt #SEARCH_HQL_CACHE"
+     */
+    public static FieldSpec createSearchHqlCacheField() {
+        return FieldSpec.builder(ParameterizedTypeName.get(ConcurrentMap.class, Long.class, String.class),
+                "SEARCH_HQL_CACHE", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T<>()", ConcurrentHashMap.class)
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which returns the search mask of an example, one bit per non null searchable field.
+     * @see "/testfiles/generatedao_output1.txt #getSearchMask"
+     */
+    public static MethodSpec createGetSearchMaskMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        MethodSpec.Builder getSearchMask = MethodSpec.methodBuilder("getSearchMask")
+                .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+                .returns(TypeName.LONG)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("long mask = 0L");
+        List<FieldModel> fields = model.getSearchFields();
+        for (int bit = 0; bit < fields.size(); bit++) {
+            getSearchMask.beginControlFlow("if ($L)", CreateDaoUtils.createSearchValueCheckCodeBlock("searchQuery",
+                    fields.get(bit)))
+                    .addStatement("mask |= 1L << $L", bit)
+                    .endControlFlow();
+        }
+        return getSearchMask.addStatement("return mask").build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which builds the HQL string of a search mask, with one named parameter per field set
+     * in the mask. The restrictions are the ones of "getPredicateList".
+     * @see "/testfiles/generatedao_output1.txt #getSearchHql"
+     */
+    public static MethodSpec createGetSearchHqlMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        MethodSpec.Builder getSearchHql = MethodSpec.methodBuilder("getSearchHql")
+                .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+                .returns(String.class)
+                .addParameter(ParameterSpec.builder(TypeName.LONG, "mask").build())
+                .addStatement("$T hql = new $T($S)", StringBuilder.class, StringBuilder.class,
+                        "from " + entityClass.toString() + " entity")
+                .addStatement("$T separator = $S", String.class, " where ");
+        List<FieldModel> fields = model.getSearchFields();
+        for (int bit = 0; bit < fields.size(); bit++) {
+            FieldModel field = fields.get(bit);
+            getSearchHql.beginControlFlow("if (($N & 1L << $L) != 0)", "mask", bit)
+                    .addStatement("$N.append($N).append($S)", "hql", "separator",
+                            "entity." + field.getSearchPath() + " = :" + field.getName())
+                    .addStatement("separator = $S", " and ")
+                    .endControlFlow();
+        }
+        return getSearchHql.addStatement("return $N.toString()", "hql").build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates search method which looks up the cached HQL string of the shape of the example and binds the
+     * non null fields of the example to it.
+     * @see "/testfiles/generatedao_output1.txt #getSearchQuery"
+     */
+    public static MethodSpec createGetSearchQueryMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        MethodSpec.Builder getSearchQuery = MethodSpec.methodBuilder("getSearchQuery")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(ParameterizedTypeName.get(ClassName.get(Query.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("long mask = getSearchMask($N)", "searchQuery")
+                .addStatement("$T hql = $N.computeIfAbsent($N, this::getSearchHql)", String.class,
+                        "SEARCH_HQL_CACHE", "mask")
+                .addStatement("$T<$T> query = this.currentSession().createQuery($N, $T.class)", Query.class,
+                        entityClass, "hql", entityClass);
+        List<FieldModel> fields = model.getSearchFields();
+        for (int bit = 0; bit < fields.size(); bit++) {
+            FieldModel field = fields.get(bit);
+            getSearchQuery.beginControlFlow("if (($N & 1L << $L) != 0)", "mask", bit)
+                    .addStatement("$N.setParameter($S, $N.$N)", "query", field.getName(), "searchQuery",
+                            field.getSearchGetter())
+                    .endControlFlow();
+        }
+        return getSearchQuery.addCode(CreateDaoUtils.createSearchQueryOptionsCodeBlock("query", model))
+                .addStatement("return $N", "query").build();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.support.ResultFlow;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import org.hibernate.SessionFactory;
+
+import javax.lang.model.element.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates the instrumented subclass of the dao class. Every public method of the dao is overridden to record a
+ * {@linkplain Timer}, an error {@linkplain Meter} and, for methods returning rows, a {@linkplain Histogram} of the
+ * number of rows. The metrics are looked up once in the constructor, so a call only pays for the updates, which
+ * Dropwizard Metrics keeps on striped counters.
+ */
+public final class CreateMetricsUtils {
+    /**
+     * Types returned by the dao methods whose size is recorded as the number of rows.
+     */
+    private static final List<ClassName> SIZED_TYPES = Arrays.asList(ClassName.get(List.class),
+            ClassName.get(Collection.class), ClassName.get(Set.class), ClassName.get(Map.class));
+    /**
+     * Types returned by the dao methods which only read rows after returning, so a timer would not measure the query.
+     */
+    private static final List<ClassName> LAZY_TYPES = Arrays.asList(ClassName.get(Stream.class),
+            ClassName.get(ResultFlow.Publisher.class));
+    /**
+     * Public methods of the dao class which never reach the database, so a timer would only measure itself.
+     */
+    private static final List<String> LOCAL_METHODS = Collections.singletonList("getNextCursor");
+
+    /**
+     *
+     */
+    private CreateMetricsUtils() {
+
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Returns the name of the instrumented subclass generated for the entity class.
+     */
+    public static ClassName getInstrumentedDaoClassName(final ClassName entityClass) {
+        return ClassName.get(entityClass.packageName(), "Brahma_" + entityClass.simpleName() + "InstrumentedDao");
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param daoClass    Generated dao class
+     * @return Generates the instrumented subclass of the dao class. The metrics are named after the dao class and the
+     * method, overloads of a method sharing the same metrics.
+     * @see "/testfiles/generatedao_output14_metrics.txt"
+     */
+    public static TypeSpec createInstrumentedDaoClass(final ClassName entityClass, final TypeSpec daoClass) {
+        ClassName daoClassName = ClassName.get(entityClass.packageName(), daoClass.name);
+        List<MethodSpec> instrumentedMethods = daoClass.methodSpecs.stream()
+                .filter(CreateMetricsUtils::isInstrumented)
+                .collect(Collectors.toList());
+        Map<String, Boolean> metricNames = new LinkedHashMap<>();
+        for (MethodSpec method : instrumentedMethods) {
+            metricNames.merge(method.name, isSized(method.returnType), Boolean::logicalOr);
+        }
+        TypeSpec.Builder instrumentedDaoClass = TypeSpec.classBuilder(getInstrumentedDaoClassName(entityClass))
+                .addModifiers(Modifier.PUBLIC)
+                .superclass(daoClassName);
+        MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ParameterSpec.builder(SessionFactory.class, "sessionFactory").build())
+                .addParameter(ParameterSpec.builder(MetricRegistry.class, "metricRegistry").build())
+                .addStatement("super(sessionFactory)");
+        for (Map.Entry<String, Boolean> metricName : metricNames.entrySet()) {
+            String name = metricName.getKey();
+            instrumentedDaoClass.addField(FieldSpec.builder(Timer.class, name + "Timer", Modifier.PRIVATE,
+                    Modifier.FINAL).build())
+                    .addField(FieldSpec.builder(Meter.class, name + "Errors", Modifier.PRIVATE, Modifier.FINAL)
+                            .build());
+            constructor.addStatement("this.$N = metricRegistry.timer($T.name($T.class, $S))", name + "Timer",
+                    MetricRegistry.class, daoClassName, name)
+                    .addStatement("this.$N = metricRegistry.meter($T.name($T.class, $S, $S))", name + "Errors",
+                            MetricRegistry.class, daoClassName, name, "errors");
+            if (metricName.getValue()) {
+                instrumentedDaoClass.addField(FieldSpec.builder(Histogram.class, name + "Rows", Modifier.PRIVATE,
+                        Modifier.FINAL).build());
+                constructor.addStatement("this.$N = metricRegistry.histogram($T.name($T.class, $S, $S))",
+                        name + "Rows", MetricRegistry.class, daoClassName, name, "rows");
+            }
+        }
+        instrumentedDaoClass.addMethod(constructor.build());
+        for (MethodSpec method : instrumentedMethods) {
+            instrumentedDaoClass.addMethod(createInstrumentedMethod(method));
+        }
+        return instrumentedDaoClass.build();
+    }
+
+    /**
+     * @param method Public method of the dao class
+     * @return Generates method which calls the method of the dao class, timing it, marking the error meter when it
+     * throws and recording the number of rows it returns.
+     * @see "/testfiles/generatedao_output14_metrics.txt #search"
+     */
+    private static MethodSpec createInstrumentedMethod(final MethodSpec method) {
+        String arguments = method.parameters.stream().map(parameter -> parameter.name)
+                .collect(Collectors.joining(", "));
+        CodeBlock.Builder call = CodeBlock.builder();
+        if (TypeName.VOID.equals(method.returnType)) {
+            call.addStatement("super.$N($L)", method.name, arguments);
+        } else if (isSized(method.returnType)) {
+            call.addStatement("$T result = super.$N($L)", method.returnType, method.name, arguments)
+                    .addStatement("this.$N.update(result.size())", method.name + "Rows")
+                    .addStatement("return result");
+        } else {
+            call.addStatement("return super.$N($L)", method.name, arguments);
+        }
+        return MethodSpec.methodBuilder(method.name)
+                .addAnnotation(Override.class)
+                .addModifiers(method.modifiers)
+                .addTypeVariables(method.typeVariables)
+                .returns(method.returnType)
+                .addParameters(method.parameters)
+                .varargs(method.varargs)
+                .addExceptions(method.exceptions)
+                .addStatement("$T.Context timerContext = this.$N.time()", Timer.class, method.name + "Timer")
+                .beginControlFlow("try")
+                .addCode(call.build())
+                .nextControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement("this.$N.mark()", method.name + "Errors")
+                .addStatement("throw e")
+                .nextControlFlow("finally")
+                .addStatement("timerContext.stop()")
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * @param method Method of the dao class
+     * @return Returns true if the method is a public instance method of the dao class which runs its queries before
+     * returning.
+     */
+    private static boolean isInstrumented(final MethodSpec method) {
+        return !method.isConstructor() && method.modifiers.contains(Modifier.PUBLIC)
+                && !method.modifiers.contains(Modifier.STATIC) && !LAZY_TYPES.contains(getRawType(method.returnType))
+                && !LOCAL_METHODS.contains(method.name);
+    }
+
+    /**
+     * @param returnType Type returned by a method of the dao class
+     * @return Returns true if the number of rows returned is the size of the returned value.
+     */
+    private static boolean isSized(final TypeName returnType) {
+        return SIZED_TYPES.contains(getRawType(returnType));
+    }
+
+    /**
+     * @param type Type returned by a method of the dao class
+     * @return Returns the raw type of a parameterized type, the type itself otherwise.
+     */
+    private static TypeName getRawType(final TypeName type) {
+        if (type instanceof ParameterizedTypeName) {
+            return ((ParameterizedTypeName) type).rawType;
+        }
+        return type;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.model.AssociationKind;
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the business key lookups of the dao class. A single @NaturalId {@linkplain org.hibernate.annotations.NaturalId} field is looked up
+ * through "bySimpleNaturalId" and a natural id of many fields through "byNaturalId", so the natural id resolutions
+ * cached by Hibernate are used. Unique columns {@linkplain javax.persistence.Column#unique()} which are not the natural id are looked up
+ * with a plain HQL query. Either way the Criteria query of "searchUniqueResult" is not built.
+ */
+public final class CreateNaturalIdUtils {
+    /**
+     *
+     */
+    private CreateNaturalIdUtils() {
+
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns the fields looked up by "getBy&lt;Field&gt;": the @NaturalId field when it is the whole natural
+     * id, and the unique columns.
+     */
+    public static List<FieldModel> getLookupFields(final EntityModel model) {
+        boolean simpleNaturalId = getNaturalIdFields(model).size() == 1;
+        return model.getFields().stream()
+                .filter(field -> !field.isId() && !field.isTransientField()
+                        && !field.getElement().getModifiers().contains(Modifier.STATIC)
+                        && field.getAssociationKind() == AssociationKind.NONE)
+                .filter(field -> field.isNaturalId() && simpleNaturalId || field.isUnique())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns the fields of the natural id of the entity, in declaration order.
+     */
+    public static List<FieldModel> getNaturalIdFields(final EntityModel model) {
+        return model.getFields().stream().filter(FieldModel::isNaturalId).collect(Collectors.toList());
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @param field Lookup field of the entity class
+     * @return Generates method which returns the entity with a value of the field, null if there is none.
+     * @see "/testfiles/generatedao_output11.txt #getByCode"
+     */
+    public static MethodSpec createGetByFieldMethod(final EntityModel model, final FieldModel field) {
+        ClassName entityClass = model.getEntityClass();
+        MethodSpec.Builder getByField = MethodSpec.methodBuilder("getBy" + capitalize(field.getName()))
+                .addModifiers(Modifier.PUBLIC)
+                .returns(entityClass)
+                .addParameter(ParameterSpec.builder(field.getType(), field.getName()).build());
+        if (field.isNaturalId()) {
+            return getByField.addStatement("return this.currentSession().bySimpleNaturalId($T.class).load($N)",
+                    entityClass, field.getName())
+                    .build();
+        }
+        return getByField.addStatement("return this.currentSession().createQuery($S, $T.class).setParameter($S, $N)"
+                        + ".uniqueResult()", "from " + entityClass + " entity where entity." + field.getName() + " = :"
+                        + field.getName(), entityClass, field.getName(), field.getName())
+                .build();
+    }
+
+    /**
+     * @param model     Model of the entity class
+     * @param field     Lookup field of the entity class
+     * @param batchSize Maximum number of values bound in a single IN list {@linkplain
+     *                  com.brahma.dao.annotations.GenerateDao#idBatchSize()}
+     * @return Generates method which loads the entities of many values of the field at once, keyed by the value, in
+     * IN lists of at most batchSize values. Values with no row are left out of the map. Entities loaded by their
+     * natural id have its resolution cached, so later "getBy&lt;Field&gt;" calls for them skip the database.
+     * @see "/testfiles/generatedao_output11.txt #getByCodes"
+     */
+    public static MethodSpec createGetByFieldsMethod(final EntityModel model, final FieldModel field,
+                                                     final int batchSize) {
+        ClassName entityClass = model.getEntityClass();
+        TypeName valueType = field.getType().box();
+        String values = field.getName() + "s";
+        return MethodSpec.methodBuilder("getBy" + capitalize(values))
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(Map.class), valueType, entityClass))
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                        valueType), values).build())
+                .addStatement("$T<$T, $T> entities = new $T<>()", Map.class, valueType, entityClass, LinkedHashMap.class)
+                .addStatement("$T<$T> values = new $T<>($N)", List.class, valueType, ArrayList.class, values)
+                .beginControlFlow("for (int from = 0; from < values.size(); from += $L)", batchSize)
+                .addStatement("$T<$T> loaded = this.currentSession().createQuery($S, $T.class).setParameterList($S, "
+                                + "values.subList(from, $T.min(from + $L, values.size()))).list()", List.class,
+                        entityClass, "from " + entityClass + " entity where entity." + field.getName() + " in (:"
+                                + values + ")", entityClass, values, Math.class, batchSize)
+                .beginControlFlow("for ($T entity : $N)", entityClass, "loaded")
+                .addStatement("$N.put($N.$N, $N)", "entities", "entity", field.getGetter(), "entity")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return entities")
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class, with a natural id of many fields
+     * @return Generates method which returns the entity with a natural id through "byNaturalId", null if there is
+     * none.
+     */
+    public static MethodSpec createGetByNaturalIdMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        MethodSpec.Builder getByNaturalId = MethodSpec.methodBuilder("getByNaturalId")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(entityClass);
+        CodeBlock.Builder load = CodeBlock.builder().add("return this.currentSession().byNaturalId($T.class)",
+                entityClass);
+        for (FieldModel field : getNaturalIdFields(model)) {
+            getByNaturalId.addParameter(ParameterSpec.builder(field.getType(), field.getName()).build());
+            load.add(".using($S, $N)", field.getName(), field.getName());
+        }
+        return getByNaturalId.addStatement("$L.load()", load.build()).build();
+    }
+
+    /**
+     * @param name Name of a field
+     * @return Returns the name with its first letter in upper case.
+     */
+    private static String capitalize(final String name) {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+}
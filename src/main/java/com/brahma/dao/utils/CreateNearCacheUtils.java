@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.annotations.NearCache;
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.support.ConcurrentLruCache;
+import com.brahma.dao.support.ManagedEntities;
+import com.brahma.dao.support.SessionTasks;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Modifier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the near cache {@linkplain NearCache} of the dao class, a bounded in-process cache in front of
+ * "getById" invalidated by the generated write methods. Every method returns an empty code block or null when the
+ * entity has no near cache, so callers can apply them unconditionally.
+ */
+public final class CreateNearCacheUtils {
+
+    /**
+     *
+     */
+    private CreateNearCacheUtils() {
+
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns true if the entity is annotated with {@linkplain NearCache}.
+     */
+    public static boolean hasNearCache(final EntityModel model) {
+        return model.getNearCache() != null && model.getIdField() != null;
+    }
+
+    /**
+     * Reports an error when the size or the time to live of the near cache {@linkplain NearCache} is not positive,
+     * the generated cache would otherwise fail when the dao is created.
+     *
+     * @param model    Model of the entity class
+     * @param messager Messager of the processor
+     */
+    public static void validateNearCache(final EntityModel model, final Messager messager) {
+        NearCache nearCache = model.getNearCache();
+        if (nearCache == null) {
+            return;
+        }
+        if (nearCache.maxSize() < 1) {
+            MessagingUtils.error(messager, model.getTypeElement(), "@NearCache maxSize must be positive, found %d",
+                    nearCache.maxSize());
+        }
+        if (nearCache.ttlSeconds() < 1) {
+            MessagingUtils.error(messager, model.getTypeElement(), "@NearCache ttlSeconds must be positive, found %d",
+                    nearCache.ttlSeconds());
+        }
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates the near cache field sized with {@linkplain NearCache#maxSize()} and {@linkplain
+     * NearCache#ttlSeconds()}, null if the entity has no near cache.
+     * @see "/testfiles/generatedao_output7.txt #nearCache"
+     */
+    public static FieldSpec createNearCacheField(final EntityModel model) {
+        if (!hasNearCache(model)) {
+            return null;
+        }
+        NearCache nearCache = model.getNearCache();
+        return FieldSpec.builder(getNearCacheType(model), "nearCache", Modifier.PRIVATE,
+                Modifier.FINAL)
+                .initializer("new $T<>($L, $LL, $T.SECONDS)", ConcurrentLruCache.class, nearCache.maxSize(),
+                        nearCache.ttlSeconds(), TimeUnit.class)
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which exposes the near cache and its hit, miss and eviction counters, null if the
+     * entity has no near cache.
+     * @see "/testfiles/generatedao_output7.txt #getNearCache"
+     */
+    public static MethodSpec createGetNearCacheMethod(final EntityModel model) {
+        if (!hasNearCache(model)) {
+            return null;
+        }
+        return MethodSpec.methodBuilder("getNearCache")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(getNearCacheType(model))
+                .addStatement("return $N", "nearCache")
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @param load  Expression loading the entity of the parameter "id" from the session
+     * @return Returns the body of "getById", which looks the id up in the near cache before loading it. A loaded entity
+     * is evicted from the dao session before it is cached, so the shared instance is always detached. An entity the
+     * session already manages is returned as is, neither evicted nor cached, so its pending changes are kept.
+     * @see "/testfiles/generatedao_output7.txt #getById"
+     */
+    public static CodeBlock createGetByIdCodeBlock(final EntityModel model, final CodeBlock load) {
+        if (!hasNearCache(model)) {
+            return CodeBlock.builder().addStatement("return $L", load).build();
+        }
+        ClassName entityClass = model.getEntityClass();
+        return CodeBlock.builder()
+                .addStatement("boolean managed = $T.contains(this.currentSession(), $T.class, $N)",
+                        ManagedEntities.class, entityClass, "id")
+                .beginControlFlow("if (!$N)", "managed")
+                .addStatement("$T cached = $N.get($N)", entityClass, "nearCache", "id")
+                .beginControlFlow("if ($N != null)", "cached")
+                .addStatement("return $N", "cached")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("$T entity = $L", entityClass, load)
+                .beginControlFlow("if ($N != null && !$N)", "entity", "managed")
+                .addStatement("this.currentSession().evict($N)", "entity")
+                .addStatement("$N.put($N, $N)", "nearCache", "id", "entity")
+                .endControlFlow()
+                .addStatement("return $N", "entity")
+                .build();
+    }
+
+    /**
+     * @param model  Model of the entity class
+     * @param entity Name of the generated variable holding the written entity
+     * @return Returns the statements dropping a written entity from the near cache, right away and again once the
+     * transaction of the dao session completes, so a concurrent "getById" cannot keep the row read before the commit.
+     * @see "/testfiles/generatedao_output7.txt #createOrUpdate"
+     */
+    public static CodeBlock createInvalidateCodeBlock(final EntityModel model, final String entity) {
+        if (!hasNearCache(model)) {
+            return CodeBlock.builder().build();
+        }
+        String getId = model.getIdField().getGetter();
+        return CodeBlock.builder()
+                .addStatement("$N.invalidate($N.$N)", "nearCache", entity, getId)
+                .addStatement("$T.afterCompletion(this.currentSession(), () -> $N.invalidate($N.$N))",
+                        SessionTasks.class, "nearCache", entity, getId)
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns the statements clearing the near cache after a bulk statement, whose rows are unknown, right away
+     * and again once the transaction of the generated variable "session" completes.
+     * @see "/testfiles/generatedao_output7.txt #executeUpdateWhere"
+     */
+    public static CodeBlock createClearCodeBlock(final EntityModel model) {
+        if (!hasNearCache(model)) {
+            return CodeBlock.builder().build();
+        }
+        return CodeBlock.builder()
+                .addStatement("$N.clear()", "nearCache")
+                .addStatement("$T.afterCompletion($N, $N::clear)", SessionTasks.class, "session", "nearCache")
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns the type of the near cache, keyed by the id of the entity.
+     */
+    private static TypeName getNearCacheType(final EntityModel model) {
+        return ParameterizedTypeName.get(ClassName.get(ConcurrentLruCache.class),
+                model.getIdField().getType().box(), model.getEntityClass());
+    }
+}
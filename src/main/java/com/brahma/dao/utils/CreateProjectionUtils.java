@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.annotations.Projection;
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the projection classes and the projection search methods of the dao class. Projection search methods
+ * select only the columns of a {@linkplain Projection} into an immutable class, so no entity is hydrated nor
+ * registered in the persistence context.
+ */
+public final class CreateProjectionUtils {
+
+    /**
+     *
+     */
+    private CreateProjectionUtils() {
+
+    }
+
+    /**
+     * @param model      Model of the entity class
+     * @param projection Projection declared on the entity class
+     * @param messager   Used to report errors, warnings, and other notices
+     * @return Returns true if the name of the projection is a Java identifier, as it names the generated class and
+     * search method, and none of its field names is empty. Errors are reported otherwise.
+     */
+    public static boolean isValidProjection(final EntityModel model, final Projection projection,
+                                            final Messager messager) {
+        boolean valid = true;
+        if (!SourceVersion.isIdentifier(projection.name())) {
+            MessagingUtils.error(messager, model.getTypeElement(), "Projection name \"%s\" should be a Java "
+                    + "identifier", projection.name());
+            valid = false;
+        }
+        for (String fieldName : projection.fields()) {
+            if (fieldName.isEmpty()) {
+                MessagingUtils.error(messager, model.getTypeElement(), "Projection %s has an empty field name",
+                        projection.name());
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param projection  Projection declared on the entity class
+     * @return Returns the name of the class generated for the projection.
+     */
+    public static ClassName getProjectionClassName(final ClassName entityClass, final Projection projection) {
+        return ClassName.get(entityClass.packageName(), "Brahma_" + entityClass.simpleName() + capitalize(projection
+                .name()));
+    }
+
+    /**
+     * @param model      Model of the entity class
+     * @param projection Projection declared on the entity class
+     * @param messager   Used to report errors, warnings, and other notices
+     * @return Returns the fields of the entity class selected by the projection, in the declared order.
+     */
+    public static List<FieldModel> getProjectionFields(final EntityModel model, final Projection projection,
+                                                       final Messager messager) {
+        List<FieldModel> projectionFields = new ArrayList<>();
+        for (String fieldName : projection.fields()) {
+            FieldModel projectionField = model.getSearchableFields().stream()
+                    .filter(field -> field.getName().equals(fieldName))
+                    .findFirst().orElse(null);
+            if (projectionField == null) {
+                MessagingUtils.error(messager, model.getTypeElement(), "Projection %s refers to unknown column %s",
+                        projection.name(), fieldName);
+            } else {
+                projectionFields.add(projectionField);
+            }
+        }
+        return projectionFields;
+    }
+
+    /**
+     * @param projectionClass  Name of the class generated for the projection
+     * @param projectionFields Fields of the entity class selected by the projection
+     * @return Generates the immutable class holding the projected columns. Its constructor takes the columns in the
+     * declared order, as required by {@linkplain javax.persistence.criteria.CriteriaBuilder#construct(Class,
+     * javax.persistence.criteria.Selection[])}.
+     * @see "/testfiles/generatedao_output8_projection.txt"
+     */
+    public static TypeSpec createProjectionClass(final ClassName projectionClass,
+                                                 final List<FieldModel> projectionFields) {
+        TypeSpec.Builder projection = TypeSpec.classBuilder(projectionClass)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL);
+        MethodSpec.Builder constructor = MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC);
+        for (FieldModel field : projectionFields) {
+            TypeName fieldType = field.getType();
+            String fieldName = field.getName();
+            projection.addField(FieldSpec.builder(fieldType, fieldName, Modifier.PRIVATE, Modifier.FINAL).build());
+            constructor.addParameter(ParameterSpec.builder(fieldType, fieldName).build())
+                    .addStatement("this.$N = $N", fieldName, fieldName);
+            projection.addMethod(MethodSpec.methodBuilder("get" + capitalize(fieldName))
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(fieldType)
+                    .addStatement("return $N", fieldName)
+                    .build());
+        }
+        return projection.addMethod(constructor.build()).build();
+    }
+
+    /**
+     * @param entityClass      Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao}
+     *                         annotation
+     * @param projection       Projection declared on the entity class
+     * @param projectionClass  Name of the class generated for the projection
+     * @param projectionFields Fields of the entity class selected by the projection
+     * @return Generates search method which selects only the projected columns of the rows matching the search query.
+     * @see "/testfiles/generatedao_output8.txt #searchSummary"
+     */
+    public static MethodSpec createProjectionSearchMethod(final ClassName entityClass, final Projection projection,
+                                                          final ClassName projectionClass,
+                                                          final List<FieldModel> projectionFields) {
+        CodeBlock.Builder columns = CodeBlock.builder();
+        for (FieldModel field : projectionFields) {
+            columns.add(", from.get($S)", field.getName());
+        }
+        return MethodSpec.methodBuilder("search" + capitalize(projection.name()))
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), projectionClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("return getSelectionQuery($N, $T.class, (criteriaBuilder, from) -> criteriaBuilder"
+                        + ".construct($T.class$L)).list()", "searchQuery", projectionClass, projectionClass,
+                        columns.build())
+                .build();
+    }
+
+    /**
+     * @param name name of a field or projection
+     * @return Returns the name with its first letter in upper case.
+     */
+    private static String capitalize(final String name) {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.model.FieldModel;
+import com.brahma.dao.support.DaoExecutors;
+import com.brahma.dao.support.ParallelScan;
+import com.brahma.dao.support.SessionTasks;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import javax.lang.model.element.Modifier;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.ws.rs.ProcessingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Generates the parallel scan methods of the dao class. The ids of the rows matching an example are split into
+ * disjoint ranges, every range is scanned in batches ordered by id, each one in its own session on an executor
+ * {@linkplain ParallelScan}, and every batch goes through the restrictions of "getPredicateList".
+ */
+public final class CreateScanUtils {
+    /**
+     * setting default number of rows handed to the consumer of a scan at once.
+     */
+    private static Integer defaultScanBatchSize = 500;
+
+    /**
+     *
+     */
+    private CreateScanUtils() {
+
+    }
+
+    /**
+     * @param idField Field of the entity class annotated with @Id {@linkplain javax.persistence.Id}
+     * @return Returns true if the ids of the entity can be split into ranges.
+     */
+    public static boolean supportsParallelScan(final FieldModel idField) {
+        return idField != null && idField.isRangeComparable();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param idField     Field of the entity class annotated with @Id {@linkplain javax.persistence.Id}
+     * @return Generates method which returns the lower bounds of the partitions of a scan. Numeric ids are split in
+     * ranges of the same width between MIN and MAX, other ids at evenly spaced positions of the sorted ids, so that
+     * every partition holds the same number of rows.
+     * @see "/testfiles/generatedao_output13.txt #getScanBounds"
+     */
+    public static MethodSpec createGetScanBoundsMethod(final ClassName entityClass, final FieldModel idField) {
+        TypeName idType = idField.getType().box();
+        String idName = idField.getName();
+        MethodSpec.Builder getScanBounds = MethodSpec.methodBuilder("getScanBounds")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), idType))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "partitions").build())
+                .addStatement("$T<$T> bounds = new $T<>()", List.class, idType, ArrayList.class);
+        CodeBlock numericBound = getNumericBound(idType);
+        if (numericBound != null) {
+            getScanBounds.addStatement("$T min = getSelectionQuery($N, $T.class, (criteriaBuilder, from) -> "
+                            + "criteriaBuilder.min(from.<$T>get($S))).uniqueResult()", idType, "searchQuery", idType,
+                    idType, idName)
+                    .addStatement("$T max = getSelectionQuery($N, $T.class, (criteriaBuilder, from) -> "
+                                    + "criteriaBuilder.max(from.<$T>get($S))).uniqueResult()", idType, "searchQuery",
+                            idType, idType, idName)
+                    .beginControlFlow("if (min == null)")
+                    .addStatement("return bounds")
+                    .endControlFlow()
+                    .addStatement("long step = (max - min) / $N + 1", "partitions")
+                    .beginControlFlow("for (int i = 0; i < $N && min + i * step <= max; i++)", "partitions")
+                    .addStatement("bounds.add($L)", numericBound)
+                    .endControlFlow();
+        } else {
+            getScanBounds.addStatement("$T session = this.currentSession()", Session.class)
+                    .addStatement("$T criteriaBuilder = session.getCriteriaBuilder()", CriteriaBuilder.class)
+                    .addStatement("$T<$T> query = criteriaBuilder.createQuery($T.class)", CriteriaQuery.class, idType,
+                            idType)
+                    .addStatement("$T<$T> from = query.from($T.class)", Root.class, entityClass, entityClass)
+                    .addStatement("$T<$T> searchRestrictions = getPredicateList($N, $N, $N)", List.class,
+                            Predicate.class, "searchQuery", "criteriaBuilder", "from")
+                    .addStatement("query.select(from.<$T>get($S)).where($N.toArray(new $T[$N.size()]))"
+                                    + ".orderBy(criteriaBuilder.asc(from.get($S)))", idType, idName,
+                            "searchRestrictions", Predicate.class, "searchRestrictions", idName)
+                    .addStatement("$T<$T> boundQuery = session.createQuery(query).setMaxResults(1)", Query.class,
+                            idType)
+                    .addStatement("long rows = count($N)", "searchQuery")
+                    .beginControlFlow("for (int i = 0; i < $N && i * rows / $N < rows; i++)", "partitions",
+                            "partitions")
+                    .addStatement("$T bound = boundQuery.setFirstResult((int) (i * rows / $N)).uniqueResult()",
+                            idType, "partitions")
+                    .beginControlFlow("if (bounds.isEmpty() || !bounds.get(bounds.size() - 1).equals(bound))")
+                    .addStatement("bounds.add(bound)")
+                    .endControlFlow()
+                    .endControlFlow();
+        }
+        return getScanBounds.addStatement("return bounds").build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param idField     Field of the entity class annotated with @Id {@linkplain javax.persistence.Id}
+     * @return Generates method which returns the next batch of a partition, the rows matching the example with an id
+     * in the partition and after the last id of the previous batch, ordered by id.
+     * @see "/testfiles/generatedao_output13.txt #getScanChunk"
+     */
+    public static MethodSpec createGetScanChunkMethod(final ClassName entityClass, final FieldModel idField) {
+        TypeName idType = idField.getType().box();
+        String idName = idField.getName();
+        return MethodSpec.methodBuilder("getScanChunk")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(idType, "lower").build())
+                .addParameter(ParameterSpec.builder(idType, "upper").build())
+                .addParameter(ParameterSpec.builder(idType, "afterId").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "batchSize").build())
+                .addStatement("$T session = this.currentSession()", Session.class)
+                .addStatement("$T criteriaBuilder = session.getCriteriaBuilder()", CriteriaBuilder.class)
+                .addStatement("$T<$T> query = criteriaBuilder.createQuery($T.class)", CriteriaQuery.class, entityClass,
+                        entityClass)
+                .addStatement("$T<$T> from = query.from($T.class)", Root.class, entityClass, entityClass)
+                .addStatement("$T<$T> searchRestrictions = getPredicateList($N, $N, $N)", List.class, Predicate.class,
+                        "searchQuery", "criteriaBuilder", "from")
+                .addStatement("searchRestrictions.add(criteriaBuilder.greaterThanOrEqualTo(from.<$T>get($S), $N))",
+                        idType, idName, "lower")
+                .beginControlFlow("if ($N != null)", "upper")
+                .addStatement("searchRestrictions.add(criteriaBuilder.lessThan(from.<$T>get($S), $N))", idType, idName,
+                        "upper")
+                .endControlFlow()
+                .beginControlFlow("if ($N != null)", "afterId")
+                .addStatement("searchRestrictions.add(criteriaBuilder.greaterThan(from.<$T>get($S), $N))", idType,
+                        idName, "afterId")
+                .endControlFlow()
+                .addStatement("query.select(from).where($N.toArray(new $T[$N.size()])).orderBy(criteriaBuilder.asc("
+                        + "from.get($S)))", "searchRestrictions", Predicate.class, "searchRestrictions", idName)
+                .addStatement("return session.createQuery(query).setMaxResults($N).list()", "batchSize")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param idField     Field of the entity class annotated with @Id {@linkplain javax.persistence.Id}
+     * @return Generates method which scans one partition in batches, clearing the session after every batch so the
+     * memory used stays flat. The entities of a batch are detached once the consumer returns.
+     * @see "/testfiles/generatedao_output13.txt #scanPartition"
+     */
+    public static MethodSpec createScanPartitionMethod(final ClassName entityClass, final FieldModel idField) {
+        TypeName idType = idField.getType().box();
+        return MethodSpec.methodBuilder("scanPartition")
+                .addModifiers(Modifier.PROTECTED)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(idType, "lower").build())
+                .addParameter(ParameterSpec.builder(idType, "upper").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "batchSize").build())
+                .addParameter(ParameterSpec.builder(getConsumerType(entityClass), "consumer").build())
+                .addStatement("$T afterId = null", idType)
+                .addStatement("$T<$T> chunk", List.class, entityClass)
+                .beginControlFlow("do")
+                .addStatement("chunk = getScanChunk($N, $N, $N, afterId, $N)", "searchQuery", "lower", "upper",
+                        "batchSize")
+                .beginControlFlow("if (!chunk.isEmpty())")
+                .addStatement("$N.accept(chunk)", "consumer")
+                .addStatement("afterId = chunk.get(chunk.size() - 1).$N", idField.getGetter())
+                .addStatement("this.currentSession().clear()")
+                .endControlFlow()
+                .endControlFlow("while (chunk.size() == $N)", "batchSize")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates method which scans the rows matching the example on a pool of one thread per partition, in
+     * batches of the default size.
+     * @see "/testfiles/generatedao_output13.txt #parallelScan"
+     */
+    public static MethodSpec createParallelScanMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("parallelScan")
+                .addModifiers(Modifier.PUBLIC)
+                .addException(ProcessingException.class)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "partitions").build())
+                .addParameter(ParameterSpec.builder(getConsumerType(entityClass), "consumer").build())
+                .addCode(createCheckPositiveCodeBlock("partitions"))
+                .addStatement("$T executor = $T.newBoundedExecutor($N, $N)", ExecutorService.class,
+                        DaoExecutors.class, "partitions", "partitions")
+                .beginControlFlow("try")
+                .addStatement("parallelScan($N, $N, $L, $N, executor)", "searchQuery", "partitions",
+                        defaultScanBatchSize, "consumer")
+                .nextControlFlow("finally")
+                .addStatement("executor.shutdown()")
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @param idField     Field of the entity class annotated with @Id {@linkplain javax.persistence.Id}
+     * @return Generates method which splits the ids of the rows matching the example into partitions and scans them
+     * on the executor, handing every batch of rows to the consumer. The consumer is called from several threads at
+     * once. The bounds are computed in their own session, so no session needs to be bound to the calling thread.
+     * @see "/testfiles/generatedao_output13.txt #parallelScan(ClassName, int, int, Consumer, Executor)"
+     */
+    public static MethodSpec createParallelScanMethodWithExecutor(final ClassName entityClass,
+                                                                  final FieldModel idField) {
+        TypeName idType = idField.getType().box();
+        return MethodSpec.methodBuilder("parallelScan")
+                .addModifiers(Modifier.PUBLIC)
+                .addException(ProcessingException.class)
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "partitions").build())
+                .addParameter(ParameterSpec.builder(TypeName.INT, "batchSize").build())
+                .addParameter(ParameterSpec.builder(getConsumerType(entityClass), "consumer").build())
+                .addParameter(ParameterSpec.builder(Executor.class, "executor").build())
+                .addCode(createCheckPositiveCodeBlock("partitions"))
+                .addCode(createCheckPositiveCodeBlock("batchSize"))
+                .addStatement("$T<$T> bounds = $T.call(this.sessionFactory, true, () -> getScanBounds($N, $N))",
+                        List.class, idType, SessionTasks.class, "searchQuery", "partitions")
+                .addStatement("$T.run(this.sessionFactory, bounds, $N, (lower, upper) -> scanPartition($N, lower, "
+                                + "upper, $N, $N))", ParallelScan.class, "executor", "searchQuery", "batchSize",
+                        "consumer")
+                .build();
+    }
+
+    /**
+     * @param parameterName Name of an int parameter
+     * @return Throws ProcessingException {@linkplain ProcessingException} when the parameter is not positive.
+     */
+    private static CodeBlock createCheckPositiveCodeBlock(final String parameterName) {
+        return CodeBlock.builder()
+                .beginControlFlow("if ($N < 1)", parameterName)
+                .addStatement("throw new $T($S + $N)", ProcessingException.class,
+                        parameterName + " should be positive, found ", parameterName)
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Returns the type of the consumer of the batches of a scan.
+     */
+    private static TypeName getConsumerType(final ClassName entityClass) {
+        return ParameterizedTypeName.get(ClassName.get(Consumer.class), ParameterizedTypeName.get(ClassName.get(
+                List.class), entityClass));
+    }
+
+    /**
+     * @param idType Boxed type of the ids of the entity
+     * @return Returns the expression turning the long lower bound of the i-th partition back into an id, null for the
+     * id types which are not split on MIN/MAX.
+     */
+    private static CodeBlock getNumericBound(final TypeName idType) {
+        if (TypeName.LONG.box().equals(idType)) {
+            return CodeBlock.of("min + i * step");
+        }
+        if (TypeName.INT.box().equals(idType) || TypeName.SHORT.box().equals(idType)) {
+            return CodeBlock.of("($T) (min + i * step)", idType.unbox());
+        }
+        return null;
+    }
+}
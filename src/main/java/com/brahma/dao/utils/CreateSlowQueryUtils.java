@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.meta.SearchMeta;
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+import com.brahma.dao.support.SlowQueryLog;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import org.hibernate.query.Query;
+
+import javax.lang.model.element.Modifier;
+import javax.ws.rs.ProcessingException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the slow query log hook of the dao class. The search methods run their query through "listLogged", which
+ * times the query and hands the searches slower than the threshold of the {@linkplain SlowQueryLog} to it, along with
+ * the fields of the example which restricted the search. The search methods keep the signatures of the ones generated
+ * by {@linkplain CreateDaoUtils}.
+ */
+public final class CreateSlowQueryUtils {
+    /**
+     *
+     */
+    private CreateSlowQueryUtils() {
+
+    }
+
+    /**
+     * @return Generates the slow query log field, disabled until "setSlowQueryLog" is called.
+     * @see "/testfiles/generatedao_output15.txt"
+     */
+    public static FieldSpec createSlowQueryLogField() {
+        return FieldSpec.builder(SlowQueryLog.class, "slowQueryLog", Modifier.PRIVATE)
+                .initializer("$T.DISABLED", SlowQueryLog.class)
+                .build();
+    }
+
+    /**
+     * @return Generates setter of the slow query log. It is meant to be called once, before the dao is shared.
+     * @see "/testfiles/generatedao_output15.txt #setSlowQueryLog"
+     */
+    public static MethodSpec createSetSlowQueryLogMethod() {
+        return MethodSpec.methodBuilder("setSlowQueryLog")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ParameterSpec.builder(SlowQueryLog.class, "slowQueryLog").build())
+                .addStatement("this.slowQueryLog = slowQueryLog")
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which returns the names of the fields of the example restricting a search, in the order
+     * "getPredicateList" adds them. It is only called for searches which are logged.
+     * @see "/testfiles/generatedao_output15.txt #getPredicateFields"
+     */
+    public static MethodSpec createGetPredicateFieldsMethod(final EntityModel model) {
+        MethodSpec.Builder getPredicateFields = MethodSpec.methodBuilder("getPredicateFields")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(ParameterizedTypeName.get(List.class, String.class))
+                .addParameter(ParameterSpec.builder(model.getEntityClass(), "searchQuery").build())
+                .addStatement("$T<$T> predicateFields = new $T<>()", List.class, String.class, ArrayList.class);
+        for (FieldModel field : model.getSearchFields()) {
+            getPredicateFields.beginControlFlow("if ($L)", CreateDaoUtils.createSearchValueCheckCodeBlock(
+                    "searchQuery", field))
+                    .addStatement("predicateFields.add($S)", field.getSearchPath())
+                    .endControlFlow();
+        }
+        return getPredicateFields.addStatement("return predicateFields").build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates method which lists the rows of a search query and logs the search when it is slow. Below the
+     * threshold it only reads the clock twice.
+     * @see "/testfiles/generatedao_output15.txt #listLogged"
+     */
+    public static MethodSpec createListLoggedMethod(final ClassName entityClass) {
+        TypeName rowsType = ParameterizedTypeName.get(ClassName.get(List.class), entityClass);
+        return MethodSpec.methodBuilder("listLogged")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(rowsType)
+                .addParameter(ParameterSpec.builder(String.class, "method").build())
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(SearchMeta.class, "searchParams").build())
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Query.class),
+                        entityClass), "query").build())
+                .addStatement("long start = $T.nanoTime()", System.class)
+                .addStatement("$T rows = query.list()", rowsType)
+                .addStatement("long elapsed = $T.nanoTime() - start", System.class)
+                .beginControlFlow("if (this.slowQueryLog.isSlow(elapsed))")
+                .addStatement("this.slowQueryLog.log($T.class, method, getPredicateFields(searchQuery), "
+                        + "searchParams, rows.size(), elapsed)", entityClass)
+                .endControlFlow()
+                .addStatement("return rows")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates the search method of {@linkplain CreateDaoUtils#createSearchMethod(ClassName)} running its
+     * query through "listLogged".
+     * @see "/testfiles/generatedao_output15.txt #search"
+     */
+    public static MethodSpec createSearchMethod(final ClassName entityClass) {
+        return createLoggedMethod(CreateDaoUtils.createSearchMethod(entityClass), CodeBlock.builder()
+                .addStatement("return listLogged($S, searchQuery, null, getSearchQuery(searchQuery))", "search")
+                .build());
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates the search method of {@linkplain CreateDaoUtils#createSearchReadOnlyMethod(ClassName)} running
+     * its query through "listLogged".
+     * @see "/testfiles/generatedao_output15.txt #searchReadOnly"
+     */
+    public static MethodSpec createSearchReadOnlyMethod(final ClassName entityClass) {
+        return createLoggedMethod(CreateDaoUtils.createSearchReadOnlyMethod(entityClass), CodeBlock.builder()
+                .addStatement("return listLogged($S, searchQuery, null, getSearchQuery(searchQuery)"
+                        + ".setReadOnly(true))", "searchReadOnly")
+                .build());
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates the search method of {@linkplain CreateDaoUtils#createSearchMethodWithParams(ClassName)}
+     * running its query through "listLogged".
+     * @see "/testfiles/generatedao_output15.txt #search(ClassName, SearchMeta)"
+     */
+    public static MethodSpec createSearchMethodWithParams(final ClassName entityClass) {
+        return createLoggedMethod(CreateDaoUtils.createSearchMethodWithParams(entityClass), createPagedCodeBlock(
+                CodeBlock.of("getSearchQueryWithParams(searchQuery, searchParams)")));
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates the search method of {@linkplain CreateDaoUtils#createSearchMethodWithPredicateList(ClassName)}
+     * running its query through "listLogged".
+     * @see "/testfiles/generatedao_output15.txt #search(ClassName, Predicate, Root, CriteriaQuery)"
+     */
+    public static MethodSpec createSearchMethodWithPredicateList(final ClassName entityClass) {
+        return createLoggedMethod(CreateDaoUtils.createSearchMethodWithPredicateList(entityClass), CodeBlock.builder()
+                .addStatement("return listLogged($S, searchQuery, null, getSearchQueryWithPredicateList(searchQuery, "
+                        + "searchRestrictions, from, query))", "search")
+                .build());
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates the search method of {@linkplain
+     * CreateDaoUtils#createSearchMethodWithParamsAndPredicateList(ClassName)} running its query through "listLogged".
+     * @see "/testfiles/generatedao_output15.txt #search(ClassName, SearchMeta, Predicate, Root, CriteriaQuery)"
+     */
+    public static MethodSpec createSearchMethodWithParamsAndPredicateList(final ClassName entityClass) {
+        return createLoggedMethod(CreateDaoUtils.createSearchMethodWithParamsAndPredicateList(entityClass),
+                createPagedCodeBlock(CodeBlock.of("getSearchQueryWithParamsAndPredicateList(searchQuery, searchParams, "
+                        + "searchRestrictions, from, query)")));
+    }
+
+    /**
+     * @param query Expression creating the search query from the search parameters
+     * @return Returns the body of a paged search, running the page of the query through "listLogged".
+     */
+    private static CodeBlock createPagedCodeBlock(final CodeBlock query) {
+        return CodeBlock.builder()
+                .beginControlFlow("if (searchParams != null)")
+                .add(CreateDaoUtils.createPageCodeBlock())
+                .addStatement("return listLogged($S, searchQuery, searchParams, $L.setMaxResults(querySize)"
+                        + ".setFirstResult(queryIndex))", "search", query)
+                .endControlFlow()
+                .addStatement("throw new $T($S)", ProcessingException.class, "searchParams object found null ")
+                .build();
+    }
+
+    /**
+     * @param searchMethod Search method generated by {@linkplain CreateDaoUtils}
+     * @param body         Body running the query of the search method through "listLogged"
+     * @return Generates method with the signature of the search method and the given body.
+     */
+    private static MethodSpec createLoggedMethod(final MethodSpec searchMethod, final CodeBlock body) {
+        return MethodSpec.methodBuilder(searchMethod.name)
+                .addModifiers(searchMethod.modifiers)
+                .returns(searchMethod.returnType)
+                .addParameters(searchMethod.parameters)
+                .addExceptions(searchMethod.exceptions)
+                .addCode(body)
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.meta.SearchMeta;
+import com.brahma.dao.support.ResultFlow;
+import com.brahma.dao.support.ScrollPublisher;
+import com.brahma.dao.support.ScrollableResultsIterator;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import org.hibernate.query.Query;
+
+import javax.lang.model.element.Modifier;
+import javax.ws.rs.ProcessingException;
+import java.util.stream.Stream;
+
+/**
+ * Generates the stream methods of the dao class. Stream methods scroll through the rows of a search instead of
+ * loading them all in a list.
+ */
+public final class CreateStreamUtils {
+    /**
+     * setting default number of rows fetched per round trip.
+     */
+    private static Integer defaultFetchSize = 100;
+
+    /**
+     *
+     */
+    private CreateStreamUtils() {
+
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates a stream method for the query generated in {@linkplain
+     * CreateDaoUtils#createGetSearchQueryMethod(ClassName)}. The returned stream holds a database cursor and must be
+     * closed.
+     * @see "/testfiles/generatedao_output1.txt #stream(ClassName)"
+     */
+    public static MethodSpec createStreamMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("stream")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(Stream.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addStatement("return $T.stream(this.currentSession(), $N($N), $L)",
+                        ScrollableResultsIterator.class, "getSearchQuery", "searchQuery", defaultFetchSize)
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates a stream method for the query generated in {@linkplain
+     * CreateDaoUtils#createGetSearchQueryMethodWithParams(ClassName, String)}. Max results and first result are only
+     * applied when set in SearchMeta {@linkplain SearchMeta}. The method is only generated when {@linkplain
+     * com.brahma.dao.annotations.GenerateDao#supportSearchVariations()} is true.
+     * @see "/testfiles/generatedao_output1.txt #stream(ClassName, SearchMeta)"
+     */
+    public static MethodSpec createStreamMethodWithParams(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("stream")
+                .addModifiers(Modifier.PUBLIC)
+                .addException(ProcessingException.class)
+                .returns(ParameterizedTypeName.get(ClassName.get(Stream.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(SearchMeta.class, "searchParams").build())
+                .beginControlFlow("if (searchParams == null)")
+                .addStatement("throw new $T($S)", ProcessingException.class, "searchParams object found null ")
+                .endControlFlow()
+                .addCode(createQueryWithParamsCodeBlock(entityClass))
+                .addStatement("int fetchSize = $N.getFetchSize() != null ? $N.getFetchSize() : $L", "searchParams",
+                        "searchParams", defaultFetchSize)
+                .addStatement("return $T.stream(this.currentSession(), $N, $N)", ScrollableResultsIterator.class,
+                        "query", "fetchSize")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Generates a publish method for the query generated in {@linkplain
+     * CreateDaoUtils#createGetSearchQueryMethodWithParams(ClassName, String)}, sending rows only as subscribers
+     * request them {@linkplain ScrollPublisher}. Every subscription scrolls in its own read only session, so the
+     * publisher can outlive the session of the calling thread. The method is only generated when {@linkplain
+     * com.brahma.dao.annotations.GenerateDao#supportSearchVariations()} is true.
+     * @see "/testfiles/generatedao_output1.txt #publish"
+     */
+    public static MethodSpec createPublishMethod(final ClassName entityClass) {
+        return MethodSpec.methodBuilder("publish")
+                .addModifiers(Modifier.PUBLIC)
+                .addException(ProcessingException.class)
+                .returns(ParameterizedTypeName.get(ClassName.get(ResultFlow.Publisher.class), entityClass))
+                .addParameter(ParameterSpec.builder(entityClass, "searchQuery").build())
+                .addParameter(ParameterSpec.builder(SearchMeta.class, "searchParams").build())
+                .beginControlFlow("if (searchParams == null)")
+                .addStatement("throw new $T($S)", ProcessingException.class, "searchParams object found null ")
+                .endControlFlow()
+                .addStatement("int fetchSize = $N.getFetchSize() != null ? $N.getFetchSize() : $L", "searchParams",
+                        "searchParams", defaultFetchSize)
+                .addCode("return new $T<>(this.sessionFactory, () -> {\n$>", ScrollPublisher.class)
+                .addCode(createQueryWithParamsCodeBlock(entityClass))
+                .addStatement("return $N", "query")
+                .addCode("$<}, $N);\n", "fetchSize")
+                .build();
+    }
+
+    /**
+     * @param entityClass Entity class annotated with {@linkplain com.brahma.dao.annotations.GenerateDao} annotation
+     * @return Builds the "query" of a search with SearchMeta {@linkplain SearchMeta}. Max results and first result
+     * are only applied when set.
+     */
+    private static CodeBlock createQueryWithParamsCodeBlock(final ClassName entityClass) {
+        return CodeBlock.builder()
+                .addStatement("$T<$T> query = $N($N, $N)", Query.class, entityClass, "getSearchQueryWithParams",
+                        "searchQuery", "searchParams")
+                .beginControlFlow("if ($N.getMaxResults() != null)", "searchParams")
+                .addStatement("$N.setMaxResults($N.getMaxResults())", "query", "searchParams")
+                .endControlFlow()
+                .beginControlFlow("if ($N.getAfter() == null && $N.getFirstResult() != null)", "searchParams",
+                        "searchParams")
+                .addStatement("$N.setFirstResult($N.getFirstResult())", "query", "searchParams")
+                .endControlFlow()
+                .build();
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.model.AssociationKind;
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+import com.brahma.dao.support.UpsertDialect;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.BigDecimalType;
+import org.hibernate.type.BigIntegerType;
+import org.hibernate.type.BinaryType;
+import org.hibernate.type.BooleanType;
+import org.hibernate.type.ByteType;
+import org.hibernate.type.CharacterType;
+import org.hibernate.type.DateType;
+import org.hibernate.type.DoubleType;
+import org.hibernate.type.FloatType;
+import org.hibernate.type.InstantType;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.LocalDateTimeType;
+import org.hibernate.type.LocalDateType;
+import org.hibernate.type.LocalTimeType;
+import org.hibernate.type.LongType;
+import org.hibernate.type.ShortType;
+import org.hibernate.type.StringType;
+import org.hibernate.type.TimeType;
+import org.hibernate.type.TimestampType;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Modifier;
+import javax.persistence.EnumType;
+import javax.persistence.TemporalType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the "upsert" methods of the dao class, which insert or update an entity in a single statement keyed on its
+ * {@linkplain javax.persistence.Id} or on the unique key declared with {@linkplain
+ * com.brahma.dao.annotations.GenerateDao#upsertKey()}. The statement of every supported dialect {@linkplain
+ * UpsertDialect} is supported, the statement is built at runtime for the dialect of the session factory.
+ * <p>
+ * The dao only names the properties it binds, the table and columns come from the entity persister so that the
+ * physical naming strategy of the session factory applies.
+ */
+public final class CreateUpsertUtils {
+    /**
+     * Hibernate types binding the field types supported by the generated upsert.
+     */
+    private static final Map<TypeName, ClassName> BIND_TYPES = new HashMap<>();
+
+    static {
+        BIND_TYPES.put(ClassName.get(String.class), ClassName.get(StringType.class));
+        BIND_TYPES.put(ClassName.get(Long.class), ClassName.get(LongType.class));
+        BIND_TYPES.put(ClassName.get(Integer.class), ClassName.get(IntegerType.class));
+        BIND_TYPES.put(ClassName.get(Short.class), ClassName.get(ShortType.class));
+        BIND_TYPES.put(ClassName.get(Byte.class), ClassName.get(ByteType.class));
+        BIND_TYPES.put(ClassName.get(Double.class), ClassName.get(DoubleType.class));
+        BIND_TYPES.put(ClassName.get(Float.class), ClassName.get(FloatType.class));
+        BIND_TYPES.put(ClassName.get(BigDecimal.class), ClassName.get(BigDecimalType.class));
+        BIND_TYPES.put(ClassName.get(BigInteger.class), ClassName.get(BigIntegerType.class));
+        BIND_TYPES.put(ClassName.get(Boolean.class), ClassName.get(BooleanType.class));
+        BIND_TYPES.put(ClassName.get(Character.class), ClassName.get(CharacterType.class));
+        BIND_TYPES.put(ClassName.get(java.sql.Date.class), ClassName.get(DateType.class));
+        BIND_TYPES.put(ClassName.get(Time.class), ClassName.get(TimeType.class));
+        BIND_TYPES.put(ClassName.get(Timestamp.class), ClassName.get(TimestampType.class));
+        BIND_TYPES.put(ClassName.get(LocalDate.class), ClassName.get(LocalDateType.class));
+        BIND_TYPES.put(ClassName.get(LocalDateTime.class), ClassName.get(LocalDateTimeType.class));
+        BIND_TYPES.put(ClassName.get(LocalTime.class), ClassName.get(LocalTimeType.class));
+        BIND_TYPES.put(ClassName.get(Instant.class), ClassName.get(InstantType.class));
+        BIND_TYPES.put(ArrayTypeName.of(TypeName.BYTE), ClassName.get(BinaryType.class));
+    }
+
+    /**
+     *
+     */
+    private CreateUpsertUtils() {
+
+    }
+
+    /**
+     * Reports the fields of the entity the generated upsert can not write.
+     *
+     * @param model    Model of the entity class
+     * @param messager Used to report errors, warnings, and other notices
+     * @return Returns true if the upsert methods can be generated for the entity.
+     */
+    public static boolean supportsUpsert(final EntityModel model, final Messager messager) {
+        FieldModel idField = model.getIdField();
+        if (idField == null) {
+            return false;
+        }
+        boolean supported = true;
+        if (idField.isGeneratedValue()) {
+            MessagingUtils.error(messager, idField.getElement(), "@GenerateDao(upsert = true) needs an assigned @Id, "
+                    + "found @GeneratedValue");
+            supported = false;
+        }
+        for (FieldModel field : getColumns(model)) {
+            if (field.isVersion()) {
+                MessagingUtils.error(messager, field.getElement(), "@GenerateDao(upsert = true) would bypass the "
+                        + "optimistic lock of @Version field %s", field.getName());
+                supported = false;
+            } else if (getBindType(field) == null) {
+                MessagingUtils.error(messager, field.getElement(), "Field %s of type %s can not be written by "
+                        + "@GenerateDao(upsert = true)", field.getName(), field.getType());
+                supported = false;
+            }
+        }
+        List<String> columnFields = getColumns(model).stream().map(FieldModel::getName).collect(Collectors.toList());
+        for (String key : model.getGenerateDao().upsertKey()) {
+            if (!columnFields.contains(key)) {
+                MessagingUtils.error(messager, model.getTypeElement(), "upsertKey field %s is not a column of %s",
+                        key, model.getEntityClass().simpleName());
+                supported = false;
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * @return Generates field caching the upsert statement of the dialect of the session factory.
+     */
+    public static FieldSpec createUpsertSqlField() {
+        return FieldSpec.builder(String.class, "upsertSql", Modifier.PRIVATE).build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which returns the upsert statement of the dialect of the session factory, built on
+     * first use from the properties of the entity so that tables and columns are named by the persister. The
+     * statement binds the columns of the entity in the same order, see "bindUpsert".
+     * @see "/testfiles/generatedao_output16.txt #getUpsertSql"
+     */
+    public static MethodSpec createGetUpsertSqlMethod(final EntityModel model) {
+        return MethodSpec.methodBuilder("getUpsertSql")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(String.class)
+                .beginControlFlow("if ($N == null)", "upsertSql")
+                .addStatement("$N = $T.createSql($N, $T.class, $L, $L)", "upsertSql", UpsertDialect.class,
+                        "sessionFactory", model.getEntityClass(), createPropertiesCodeBlock(getColumns(model)),
+                        createPropertiesCodeBlock(getKeyColumns(model)))
+                .endControlFlow()
+                .addStatement("return $N", "upsertSql")
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which binds the columns of an entity to the parameters of the upsert statement,
+     * through the Hibernate types of the fields.
+     * @see "/testfiles/generatedao_output16.txt #bindUpsert"
+     */
+    public static MethodSpec createBindUpsertMethod(final EntityModel model) {
+        MethodSpec.Builder bindUpsert = MethodSpec.methodBuilder("bindUpsert")
+                .addModifiers(Modifier.PROTECTED)
+                .addParameter(ParameterSpec.builder(PreparedStatement.class, "statement").build())
+                .addParameter(ParameterSpec.builder(SharedSessionContractImplementor.class, "session").build())
+                .addParameter(ParameterSpec.builder(model.getEntityClass(), model.getParameterName()).build())
+                .addException(SQLException.class);
+        int index = 1;
+        for (FieldModel field : getColumns(model)) {
+            bindUpsert.addStatement("$T.INSTANCE.nullSafeSet($N, $L, $L, $N)", getBindType(field), "statement",
+                    createBindValueCodeBlock(model.getParameterName(), field), index++, "session");
+        }
+        return bindUpsert.build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which runs the upsert statement of the dialect of the session factory on a
+     * connection, once for a single entity and as a JDBC batch for many.
+     * @see "/testfiles/generatedao_output16.txt #executeUpsert"
+     */
+    public static MethodSpec createExecuteUpsertMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        return MethodSpec.methodBuilder("executeUpsert")
+                .addModifiers(Modifier.PROTECTED)
+                .addParameter(ParameterSpec.builder(Connection.class, "connection").build())
+                .addParameter(ParameterSpec.builder(Session.class, "session").build())
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                        entityClass), "entities").build())
+                .addException(SQLException.class)
+                .beginControlFlow("try ($T statement = $N.prepareStatement(getUpsertSql()))", PreparedStatement.class,
+                        "connection")
+                .beginControlFlow("if ($N.size() == 1)", "entities")
+                .addStatement("bindUpsert($N, ($T) $N, $N.iterator().next())", "statement",
+                        SharedSessionContractImplementor.class, "session", "entities")
+                .addStatement("$N.executeUpdate()", "statement")
+                .addStatement("return")
+                .endControlFlow()
+                .beginControlFlow("for ($T entity : $N)", entityClass, "entities")
+                .addStatement("bindUpsert($N, ($T) $N, $N)", "statement", SharedSessionContractImplementor.class,
+                        "session", "entity")
+                .addStatement("$N.addBatch()", "statement")
+                .endControlFlow()
+                .addStatement("$N.executeBatch()", "statement")
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which inserts or updates an entity in a single statement, after applying its default
+     * values. The entity is written without being attached to the session.
+     * @see "/testfiles/generatedao_output16.txt #upsert"
+     */
+    public static MethodSpec createUpsertMethod(final EntityModel model) {
+        String parameterName = model.getParameterName();
+        return MethodSpec.methodBuilder("upsert")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(model.getEntityClass())
+                .addParameter(ParameterSpec.builder(model.getEntityClass(), parameterName).build())
+                .addStatement("applyDefaults($N)", parameterName)
+                .addStatement("$T session = this.currentSession()", Session.class)
+                .addStatement("$N.doWork(connection -> executeUpsert(connection, $N, $T.singletonList($N)))",
+                        "session", "session", Collections.class, parameterName)
+                .addCode(createEvictCodeBlock(model, parameterName))
+                .addStatement("return $N", parameterName)
+                .build();
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Generates method which inserts or updates a collection of entities as a single JDBC batch of upsert
+     * statements, after applying their default values.
+     * @see "/testfiles/generatedao_output16.txt #upsertAll"
+     */
+    public static MethodSpec createUpsertAllMethod(final EntityModel model) {
+        ClassName entityClass = model.getEntityClass();
+        MethodSpec.Builder upsertAll = MethodSpec.methodBuilder("upsertAll")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityClass))
+                .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                        entityClass), "entities").build())
+                .addStatement("$T<$T> upserted = new $T<>($N)", List.class, entityClass, ArrayList.class, "entities")
+                .beginControlFlow("if ($N.isEmpty())", "upserted")
+                .addStatement("return $N", "upserted")
+                .endControlFlow()
+                .addStatement("$N.forEach(this::applyDefaults)", "upserted")
+                .addStatement("$T session = this.currentSession()", Session.class)
+                .addStatement("$N.doWork(connection -> executeUpsert(connection, $N, $N))", "session", "session",
+                        "upserted");
+        CodeBlock evict = createEvictCodeBlock(model, "entity");
+        if (!evict.isEmpty()) {
+            upsertAll.beginControlFlow("for ($T entity : $N)", entityClass, "upserted")
+                    .addCode(evict)
+                    .endControlFlow();
+        }
+        return upsertAll.addStatement("return $N", "upserted").build();
+    }
+
+    /**
+     * @param model  Model of the entity class
+     * @param entity Name of the generated variable holding the written entity
+     * @return Returns the statements dropping a written entity from the second level cache and the near cache, as
+     * the upsert bypasses both.
+     */
+    private static CodeBlock createEvictCodeBlock(final EntityModel model, final String entity) {
+        CodeBlock.Builder evict = CodeBlock.builder();
+        if (model.isCacheable()) {
+            evict.addStatement("$N.getCache().evictEntity($T.class, $N.$N)", "sessionFactory", model.getEntityClass(),
+                    entity, model.getIdField().getGetter());
+        }
+        return evict.add(CreateNearCacheUtils.createInvalidateCodeBlock(model, entity)).build();
+    }
+
+    /**
+     * @param parameterName Name of the entity parameter
+     * @param field         Column field of the entity class
+     * @return Returns the value bound for the field, the id of the associated entity for associations and the
+     * name or ordinal of enums, following {@linkplain javax.persistence.Enumerated}.
+     */
+    private static CodeBlock createBindValueCodeBlock(final String parameterName, final FieldModel field) {
+        if (field.getAssociationKind() != AssociationKind.NONE) {
+            return CodeBlock.of("$N.$N == null ? null : $N.$N", parameterName, field.getGetter(), parameterName,
+                    field.getSearchGetter());
+        }
+        if (field.getEnumType() != null) {
+            return CodeBlock.of("$N.$N == null ? null : $N.$N.$N()", parameterName, field.getGetter(), parameterName,
+                    field.getGetter(), getEnumMethod(field));
+        }
+        return CodeBlock.of("$N.$N", parameterName, field.getGetter());
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns the fields of the entity mapped to a column of its table: basic fields and the foreign keys of
+     * {@linkplain javax.persistence.ManyToOne} and owning {@linkplain javax.persistence.OneToOne} associations.
+     */
+    private static List<FieldModel> getColumns(final EntityModel model) {
+        return model.getFields().stream()
+                .filter(FieldModel::isPersistent)
+                .filter(field -> field.getAssociationKind() == AssociationKind.NONE || field.isForeignKeyAssociation())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns the fields of the unique key of the upsert, the @Id field unless {@linkplain
+     * com.brahma.dao.annotations.GenerateDao#upsertKey()} is given.
+     */
+    private static List<FieldModel> getKeyColumns(final EntityModel model) {
+        List<String> upsertKey = Arrays.asList(model.getGenerateDao().upsertKey());
+        if (upsertKey.isEmpty()) {
+            return Collections.singletonList(model.getIdField());
+        }
+        return getColumns(model).stream().filter(field -> upsertKey.contains(field.getName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param fields Column fields of the entity class
+     * @return Returns the list of the property names of the fields.
+     */
+    private static CodeBlock createPropertiesCodeBlock(final List<FieldModel> fields) {
+        CodeBlock.Builder properties = CodeBlock.builder().add("$T.asList(", Arrays.class);
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                properties.add(", ");
+            }
+            properties.add("$S", fields.get(i).getName());
+        }
+        return properties.add(")").build();
+    }
+
+    /**
+     * @param field Column field of the entity class
+     * @return Returns the Hibernate type binding the column of the field, null if the type of the field is not
+     * supported.
+     */
+    private static ClassName getBindType(final FieldModel field) {
+        FieldModel column = field;
+        if (field.getAssociationKind() != AssociationKind.NONE) {
+            column = field.getAssociationIdField();
+            if (column == null) {
+                return null;
+            }
+        }
+        if (column.getEnumType() != null) {
+            if ("name".equals(getEnumMethod(column))) {
+                return ClassName.get(StringType.class);
+            }
+            return ClassName.get(IntegerType.class);
+        }
+        if (column.getType().equals(ClassName.get(Date.class))) {
+            return getTemporalType(column);
+        }
+        return BIND_TYPES.get(column.getType().box());
+    }
+
+    /**
+     * @param field java.util.Date field of an entity class
+     * @return Returns the Hibernate type of the {@linkplain javax.persistence.Temporal} type of the field, a
+     * timestamp by default.
+     */
+    private static ClassName getTemporalType(final FieldModel field) {
+        if (field.getTemporalType() == TemporalType.DATE) {
+            return ClassName.get(DateType.class);
+        }
+        if (field.getTemporalType() == TemporalType.TIME) {
+            return ClassName.get(TimeType.class);
+        }
+        return ClassName.get(TimestampType.class);
+    }
+
+    /**
+     * @param field Enum field of an entity class
+     * @return Returns the method of the enum giving the stored value, "name" for {@linkplain EnumType#STRING} and
+     * "ordinal" otherwise.
+     */
+    private static String getEnumMethod(final FieldModel field) {
+        if (field.getEnumType() == EnumType.STRING) {
+            return "name";
+        }
+        return "ordinal";
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018 gozefo.
+ *
+ * Licensed under the MIT License;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/MIT
+ *
+ *THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *SOFTWARE
+ */
+package com.brahma.dao.utils;
+
+import com.brahma.dao.model.EntityModel;
+import com.brahma.dao.model.FieldModel;
+
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the columns the generated search methods filter and sort on with the indexes declared on the entity
+ * class. A column is covered when it is the @Id {@linkplain javax.persistence.Id}, the first @NaturalId {@linkplain
+ * org.hibernate.annotations.NaturalId}, a unique column, or the leading column of an index {@linkplain Index} or a
+ * unique constraint {@linkplain UniqueConstraint} of the @Table {@linkplain Table}. Only the leading column counts, as
+ * a database cannot seek on the other columns of a composite index.
+ */
+public final class IndexAdvisoryUtils {
+
+    /**
+     *
+     */
+    private IndexAdvisoryUtils() {
+
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns the searchable fields and searchable association fields of the entity whose column is not
+     * covered by an index. The column of a field is the name of its @Column {@linkplain javax.persistence.Column}
+     * or @JoinColumn {@linkplain javax.persistence.JoinColumn} when given, its default column name otherwise.
+     */
+    public static List<FieldModel> getUnindexedFields(final EntityModel model) {
+        Set<String> indexedColumns = getIndexedColumns(model);
+        return model.getSearchFields().stream()
+                .filter(field -> !indexedColumns.contains(normalize(field.getColumnName())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @param field Unindexed field of the entity class
+     * @return Returns the JSON object describing the unindexed column in the index advisory report.
+     */
+    public static String createReportEntry(final EntityModel model, final FieldModel field) {
+        return "{\"entity\": \"" + escape(model.getEntityClass().toString()) + "\", \"field\": \""
+                + escape(field.getName()) + "\", \"column\": \"" + escape(field.getColumnName()) + "\"}";
+    }
+
+    /**
+     * @param model Model of the entity class
+     * @return Returns the normalized names of the columns covered by an index.
+     */
+    private static Set<String> getIndexedColumns(final EntityModel model) {
+        Set<String> indexedColumns = new HashSet<>();
+        Table table = model.getTable();
+        if (table != null) {
+            for (Index index : table.indexes()) {
+                indexedColumns.add(normalize(getLeadingColumn(index)));
+            }
+            for (UniqueConstraint uniqueConstraint : table.uniqueConstraints()) {
+                if (uniqueConstraint.columnNames().length > 0) {
+                    indexedColumns.add(normalize(uniqueConstraint.columnNames()[0]));
+                }
+            }
+        }
+        boolean naturalIdFound = false;
+        for (FieldModel field : model.getFields()) {
+            boolean leadingNaturalId = !naturalIdFound && field.isNaturalId();
+            if (field.isId() || leadingNaturalId || field.isUnique() || field.isUniqueJoinColumn()) {
+                indexedColumns.add(normalize(field.getColumnName()));
+            }
+            naturalIdFound |= leadingNaturalId;
+        }
+        return indexedColumns;
+    }
+
+    /**
+     * @param index Index declared on the table
+     * @return Returns the first column of the column list of the index, without its ASC or DESC order.
+     */
+    private static String getLeadingColumn(final Index index) {
+        return index.columnList().split(",")[0].trim().split("\\s+")[0];
+    }
+
+    /**
+     * @param column Name of a column, as written in an annotation
+     * @return Returns the name in lower case without quotes nor underscores, so that "order_id", "\"ORDER_ID\"" and
+     * the field "orderId" compare equal whatever the naming strategy.
+     */
+    private static String normalize(final String column) {
+        return column.trim().replaceAll("[`\"_\\[\\]]", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param value Value of a JSON string
+     * @return Returns the value with its quotes and backslashes escaped.
+     */
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
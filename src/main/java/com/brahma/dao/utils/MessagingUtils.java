@@ -16,6 +16,13 @@ public class MessagingUtils {
         printMessage(messager, Diagnostic.Kind.ERROR, element, message, args);
     }
 
+    public static void warning(final Messager messager,
+                               final Element element,
+                               final String message,
+                               final Object... args) {
+        printMessage(messager, Diagnostic.Kind.WARNING, element, message, args);
+    }
+
     private static void printMessage(final Messager messager,
                                      final Diagnostic.Kind kind,
                                      final Element element,
@@ -0,0 +1,82 @@
+package com.brahma.meta;
+
+import com.brahma.dao.meta.SearchCursor;
+import com.brahma.dao.meta.SearchMeta;
+import com.brahma.dao.meta.SortType;
+import com.brahma.testclass.TestEnum;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.ProcessingException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+public class SearchCursorTest {
+    @Test
+    public void encodeDecodeTest() {
+        SearchMeta searchParams = SearchMeta.builder().sortBy("name").build();
+        SearchCursor cursor = SearchCursor.decode(SearchCursor.encode(searchParams, "order.1:2", 42L), searchParams);
+        Assert.assertEquals("order.1:2", cursor.getSortValue());
+        Assert.assertEquals(42L, cursor.getId());
+
+        searchParams = SearchMeta.builder().sortBy("status").sortType(SortType.DESC).build();
+        cursor = SearchCursor.decode(SearchCursor.encode(searchParams, TestEnum.YES, new BigDecimal("10.50")),
+                searchParams);
+        Assert.assertEquals(TestEnum.YES, cursor.getSortValue());
+        Assert.assertEquals(new BigDecimal("10.50"), cursor.getId());
+
+        searchParams = SearchMeta.builder().sortBy("created").sortType(SortType.ASC).build();
+        cursor = SearchCursor.decode(SearchCursor.encode(searchParams, new Date(1500000000000L), 7), searchParams);
+        Assert.assertEquals(new Date(1500000000000L), cursor.getSortValue());
+        Assert.assertEquals(7, cursor.getId());
+    }
+
+    @Test
+    public void encodeWithoutSortValueTest() {
+        SearchMeta searchParams = new SearchMeta();
+        SearchCursor cursor = SearchCursor.decode(SearchCursor.encode(searchParams, null, "abc"), searchParams);
+        Assert.assertNull(cursor.getSortValue());
+        Assert.assertEquals("abc", cursor.getId());
+    }
+
+    @Test
+    public void ascendingByDefaultTest() {
+        String after = SearchCursor.encode(SearchMeta.builder().sortBy("name").build(), "a", 1L);
+        SearchCursor cursor = SearchCursor.decode(after, SearchMeta.builder().sortBy("name").sortType(SortType.ASC)
+                .build());
+        Assert.assertEquals("a", cursor.getSortValue());
+    }
+
+    @Test(expected = ProcessingException.class)
+    public void encodeNullSortValueTest() {
+        SearchCursor.encode(SearchMeta.builder().sortBy("name").build(), null, 1L);
+    }
+
+    @Test(expected = ProcessingException.class)
+    public void decodeOtherSortAttributeTest() {
+        String after = SearchCursor.encode(SearchMeta.builder().sortBy("name").build(), "a", 1L);
+        SearchCursor.decode(after, SearchMeta.builder().sortBy("code").build());
+    }
+
+    @Test(expected = ProcessingException.class)
+    public void decodeOtherSortTypeTest() {
+        String after = SearchCursor.encode(SearchMeta.builder().sortBy("name").build(), "a", 1L);
+        SearchCursor.decode(after, SearchMeta.builder().sortBy("name").sortType(SortType.DESC).build());
+    }
+
+    @Test(expected = ProcessingException.class)
+    public void decodeUnsortedCursorTest() {
+        String after = SearchCursor.encode(new SearchMeta(), null, 1L);
+        SearchCursor.decode(after, SearchMeta.builder().sortBy("name").build());
+    }
+
+    @Test(expected = ProcessingException.class)
+    public void decodeMalformedCursorTest() {
+        SearchCursor.decode("not-a-cursor", new SearchMeta());
+    }
+
+    @Test(expected = ProcessingException.class)
+    public void decodeUnsupportedTypeTest() {
+        SearchCursor.decode("..amF2YS5sYW5nLlRocmVhZDp4", new SearchMeta());
+    }
+}
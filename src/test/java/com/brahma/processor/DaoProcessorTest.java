@@ -8,6 +8,12 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 
 import static com.google.common.truth.Truth.assertAbout;
@@ -159,5 +165,480 @@ public class DaoProcessorTest {
 
     }
 
+    @Test
+    public void generateDaoAggregateTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input7.txt"))
+
+                )
+        );
+        final JavaFileObject output = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output7.txt"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(output);
+
+    }
+
+    @Test
+    public void generateDaoProjectionTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input8.txt"))
+
+                )
+        );
+        final JavaFileObject output = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output8.txt"))
+
+                )
+        );
+        final JavaFileObject projectionOutput = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntitySummary",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output8_projection.txt"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(output, projectionOutput);
+
+    }
+
+    @Test
+    public void generateDaoProjectionEmptyNameTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input8.txt")
+                        .replace("name = \"summary\"", "name = \"\""))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .failsToCompile()
+                .withErrorContaining("Projection name \"\" should be a Java identifier");
+    }
+
+    @Test
+    public void generateDaoProjectionEmptyFieldTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input8.txt")
+                        .replace("\"orderId\"}", "\"\"}"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .failsToCompile()
+                .withErrorContaining("Projection summary has an empty field name");
+    }
+
+    @Test
+    public void generateDaoFetchPlanTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input9.txt"))
+
+                )
+        );
+        final JavaFileObject output = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output9.txt"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(output);
+
+    }
+
+    @Test
+    public void generateDaoFetchPlanEmptyNameTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input9.txt")
+                        .replace("name = \"withParent\"", "name = \"\""))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .failsToCompile()
+                .withErrorContaining("Fetch plan name \"\" should be a Java identifier");
+    }
+
+    @Test
+    public void generateDaoFetchPlanEmptyAssociationTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input9.txt")
+                        .replace("\"parent.parent\"", "\"parent..parent\""))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .failsToCompile()
+                .withErrorContaining("Fetch plan withParent path \"parent..parent\" has an empty association");
+    }
+
+    @Test
+    public void generateDaoSearchCriteriaTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input10.txt"))
+
+                )
+        );
+        final JavaFileObject output = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output10.txt"))
+
+                )
+        );
+        final JavaFileObject criteriaOutput = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityCriteria",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output10_criteria.txt"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(output, criteriaOutput);
+
+    }
+
+    @Test
+    public void indexAdvisoryWarningTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input11.txt"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .withWarningContaining("Column created_at is searched by the generated dao but no index covers it")
+                .and()
+                .and()
+                .generatesFileNamed(StandardLocation.CLASS_OUTPUT, "", DaoProcessor.INDEX_ADVISORY_REPORT_DIRECTORY
+                        + "com.example.BrahmaEntity.json")
+                .withStringContents(StandardCharsets.UTF_8, "["
+                        + "{\"entity\": \"com.example.BrahmaEntity\", \"field\": \"createdAt\", \"column\": \"created_at\"},\n"
+                        + "{\"entity\": \"com.example.BrahmaEntity\", \"field\": \"parent\", \"column\": \"parent_id\"}]\n");
+
+    }
+
+    @Test
+    public void indexAdvisoryErrorTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input11.txt"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .withCompilerOptions("-A" + DaoProcessor.INDEX_ADVISORY_OPTION + "=error")
+                .processedWith(new DaoProcessor())
+                .failsToCompile()
+                .withErrorContaining("Column created_at is searched by the generated dao but no index covers it");
+
+    }
+
+    @Test
+    public void generateAsyncDaoTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input12.txt"))
+
+                )
+        );
+        final JavaFileObject asyncOutput = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityAsyncDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output12_async.txt"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(asyncOutput);
+
+    }
+
+    @Test
+    public void generateDaoParallelScanTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input13.txt"))
+
+                )
+        );
+        final JavaFileObject output = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output13.txt"))
+
+                )
+        );
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(output);
+
+    }
+
+    @Test
+    public void generateInstrumentedDaoTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input14.txt"))
+
+                )
+        );
+        final JavaFileObject instrumentedOutput = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityInstrumentedDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output14_metrics.txt"))
+
+                )
+        );
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(instrumentedOutput);
+
+    }
+
+    @Test
+    public void generateDaoSlowQueryLogTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input15.txt"))
+
+                )
+        );
+        final JavaFileObject output = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output15.txt"))
+
+                )
+        );
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(output);
+
+    }
+
+    @Test
+    public void incrementalProcessorMetadataTest() throws IOException {
+        try (InputStream metadata = DaoProcessor.class.getClassLoader().getResourceAsStream(
+                "META-INF/gradle/incremental.annotation.processors")) {
+            Assert.assertNotNull(metadata);
+            Assert.assertEquals(DaoProcessor.class.getName() + ",isolating",
+                    new BufferedReader(new InputStreamReader(metadata, StandardCharsets.UTF_8)).readLine());
+        }
+    }
+
+    @Test
+    public void generateDaoUpsertTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input16.txt"))
+
+                )
+        );
+        final JavaFileObject output = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output16.txt"))
+
+                )
+        );
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(output);
+
+    }
+
+    @Test
+    public void generateDaoReadOnlySearchTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input17.txt"))
+
+                )
+        );
+        final JavaFileObject output = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output17.txt"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(output);
+
+
+    }
+
+    @Test
+    public void generateDaoUpsertGeneratedIdTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input12.txt").replace("@GenerateDao(async = true)",
+                        "@GenerateDao(upsert = true)")))
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .failsToCompile()
+                .withErrorContaining("@GenerateDao(upsert = true) needs an assigned @Id, found @GeneratedValue");
+
+    }
+
+    @Test
+    public void generateDaoNaturalIdTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input11.txt"))
+
+                )
+        );
+        final JavaFileObject output = JavaFileObjects.forSourceString(
+                "com.example.Brahma_BrahmaEntityDao",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_output11.txt"))
+
+                )
+        );
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(output);
+
+    }
+
+    @Test
+    public void generateDaoNearCacheSizeTest() {
+
+        final JavaFileObject input = JavaFileObjects.forSourceString(
+                "com.example.BrahmaEntity",
+                Joiner.on('\n').join(Collections.singleton(TestUtils.readLineByLineJava8
+                        ("testfiles/generatedao_input7.txt")
+                        .replace("maxSize = 5000", "maxSize = 0"))
+
+                )
+        );
+
+        assertAbout(javaSource())
+                .that(input)
+                .processedWith(new DaoProcessor())
+                .failsToCompile()
+                .withErrorContaining("@NearCache maxSize must be positive, found 0");
+    }
 
 }
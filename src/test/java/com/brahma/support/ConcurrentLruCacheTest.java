@@ -0,0 +1,65 @@
+package com.brahma.support;
+
+import com.brahma.dao.support.ConcurrentLruCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentLruCacheTest {
+    @Test
+    public void hitAndMissTest() {
+        ConcurrentLruCache<Long, String> cache = new ConcurrentLruCache<>(10, 1, TimeUnit.HOURS);
+        Assert.assertNull(cache.get(1L));
+        cache.put(1L, "one");
+        Assert.assertEquals("one", cache.get(1L));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void invalidateTest() {
+        ConcurrentLruCache<Long, String> cache = new ConcurrentLruCache<>(10, 1, TimeUnit.HOURS);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.invalidate(1L);
+        Assert.assertNull(cache.get(1L));
+        Assert.assertEquals("two", cache.get(2L));
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedTest() {
+        ConcurrentLruCache<Long, String> cache = new ConcurrentLruCache<>(2, 1, TimeUnit.HOURS);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L);
+        cache.put(3L, "three");
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals("one", cache.get(1L));
+        Assert.assertNull(cache.get(2L));
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void expireTest() throws InterruptedException {
+        ConcurrentLruCache<Long, String> cache = new ConcurrentLruCache<>(10, 1, TimeUnit.MILLISECONDS);
+        cache.put(1L, "one");
+        Thread.sleep(5);
+        Assert.assertNull(cache.get(1L));
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void staleEntriesAreBoundedTest() {
+        ConcurrentLruCache<Long, String> cache = new ConcurrentLruCache<>(2, 1, TimeUnit.HOURS);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(1L, "one");
+            cache.invalidate(1L);
+        }
+        cache.put(1L, "one");
+        Assert.assertEquals("one", cache.get(1L));
+        Assert.assertEquals(0, cache.getEvictionCount());
+    }
+}
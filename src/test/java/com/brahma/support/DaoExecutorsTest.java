@@ -0,0 +1,53 @@
+package com.brahma.support;
+
+import com.brahma.dao.support.DaoExecutors;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class DaoExecutorsTest {
+    @Test
+    public void boundedExecutorTest() throws Exception {
+        ExecutorService executor = DaoExecutors.newBoundedExecutor(2, 10);
+        try {
+            Assert.assertTrue(CompletableFuture.supplyAsync(() -> Thread.currentThread().isDaemon(), executor).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void boundedExecutorRejectsWhenFullTest() throws Exception {
+        ExecutorService executor = DaoExecutors.newBoundedExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> {
+                    try {
+                        release.await(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void virtualThreadExecutorTest() throws Exception {
+        ExecutorService executor = DaoExecutors.newVirtualThreadExecutor(2);
+        try {
+            Assert.assertEquals("done", CompletableFuture.supplyAsync(() -> "done", executor).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
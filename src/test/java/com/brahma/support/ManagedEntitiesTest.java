@@ -0,0 +1,69 @@
+package com.brahma.support;
+
+import com.brahma.dao.support.ManagedEntities;
+import com.brahma.testclass.TestEntity;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Set;
+
+public class ManagedEntitiesTest {
+    private static SessionFactory sessionFactory;
+
+    @BeforeClass
+    public static void setUp() {
+        sessionFactory = sessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    public void containsTest() {
+        try (Session session = sessionFactory.openSession()) {
+            TestEntity entity = new TestEntity(1L, "a");
+            session.persist(entity);
+            entity.setName("b");
+            Assert.assertTrue(ManagedEntities.contains(session, TestEntity.class, 1L));
+            Assert.assertFalse(ManagedEntities.contains(session, TestEntity.class, 2L));
+
+            TestEntity loaded = session.get(TestEntity.class, 1L);
+            Assert.assertSame(entity, loaded);
+            Assert.assertEquals("b", loaded.getName());
+            Assert.assertTrue(session.contains(entity));
+        }
+    }
+
+    @Test
+    public void snapshotTest() {
+        try (Session session = sessionFactory.openSession()) {
+            TestEntity managed = new TestEntity(1L, "a");
+            session.persist(managed);
+            Set<Object> snapshot = ManagedEntities.snapshot(session);
+            TestEntity attachedLater = new TestEntity(2L, "b");
+            session.persist(attachedLater);
+            Assert.assertTrue(snapshot.contains(managed));
+            Assert.assertFalse(snapshot.contains(attachedLater));
+            Assert.assertFalse(snapshot.contains(new TestEntity(1L, "a")));
+        }
+    }
+
+    static SessionFactory sessionFactory() {
+        return new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+                .applySetting("hibernate.temp.use_jdbc_metadata_defaults", "false")
+                .applySetting("jadira.usertype.useJdbc42Apis", "true")
+                .build())
+                .addAnnotatedClass(TestEntity.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+}
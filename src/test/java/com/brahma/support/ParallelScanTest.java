@@ -0,0 +1,95 @@
+package com.brahma.support;
+
+import com.brahma.dao.support.ParallelScan;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.ProcessingException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ParallelScanTest {
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private SessionFactory sessionFactory;
+
+    @Before
+    public void setUp() {
+        Transaction transaction = stub(Transaction.class, name -> "isActive".equals(name) ? true : null);
+        Session session = stub(Session.class, name -> {
+            if ("beginTransaction".equals(name)) {
+                return transaction;
+            }
+            return "getSessionFactory".equals(name) ? sessionFactory : null;
+        });
+        sessionFactory = stub(SessionFactory.class, name -> "openSession".equals(name) ? session : null);
+    }
+
+    @Test
+    public void partitionBoundsTest() {
+        List<String> partitions = new ArrayList<>();
+        ParallelScan.run(sessionFactory, Arrays.asList(1L, 11L, 21L), Runnable::run, (lower, upper) -> {
+            Assert.assertTrue(ManagedSessionContext.hasBind(sessionFactory));
+            partitions.add(lower + "-" + upper);
+        });
+        Assert.assertEquals(Arrays.asList("1-11", "11-21", "21-null"), partitions);
+        Assert.assertEquals(3, Collections.frequency(calls, "Transaction.commit"));
+        Assert.assertEquals(3, Collections.frequency(calls, "Session.close"));
+    }
+
+    @Test
+    public void noPartitionTest() {
+        ParallelScan.run(sessionFactory, Collections.<Long>emptyList(), Runnable::run, (lower, upper) -> {
+            throw new AssertionError("no partition to scan");
+        });
+        Assert.assertFalse(calls.contains("SessionFactory.openSession"));
+    }
+
+    @Test(expected = ProcessingException.class)
+    public void partitionFailureTest() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ParallelScan.run(sessionFactory, Arrays.asList("a", "m"), executor, (lower, upper) -> {
+                if ("m".equals(lower)) {
+                    throw new ProcessingException("scan failed");
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T stub(final Class<T> type, final Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName();
+                default:
+                    calls.add(type.getSimpleName() + "." + method.getName());
+                    Object result = answer.answer(method.getName());
+                    if (result == null && method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+                    return result;
+            }
+        });
+    }
+
+    private interface Answer {
+        Object answer(String name);
+    }
+}
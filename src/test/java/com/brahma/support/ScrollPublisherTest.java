@@ -0,0 +1,166 @@
+package com.brahma.support;
+
+import com.brahma.dao.support.ResultFlow;
+import com.brahma.dao.support.ScrollPublisher;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+public class ScrollPublisherTest {
+    private final List<String> calls = new ArrayList<>();
+    private SessionFactory sessionFactory;
+    private ScrollPublisher<String> publisher;
+
+    @Before
+    public void setUp() {
+        Iterator<String> rows = Arrays.asList("a", "b", "c").iterator();
+        String[] current = new String[1];
+        ScrollableResults results = stub(ScrollableResults.class, (name, args) -> {
+            if ("next".equals(name)) {
+                current[0] = rows.hasNext() ? rows.next() : null;
+                return current[0] != null;
+            }
+            return "get".equals(name) ? current[0] : null;
+        });
+        Query<?> query = stub(Query.class, (name, args) -> "scroll".equals(name) ? results : null);
+        Transaction transaction = stub(Transaction.class, (name, args) -> "isActive".equals(name) ? true : null);
+        Session session = stub(Session.class, (name, args) -> {
+            if ("beginTransaction".equals(name)) {
+                return transaction;
+            }
+            return "getSessionFactory".equals(name) ? sessionFactory : null;
+        });
+        sessionFactory = stub(SessionFactory.class, (name, args) -> "openSession".equals(name) ? session : null);
+        publisher = new ScrollPublisher<>(sessionFactory, () -> {
+            calls.add("query");
+            @SuppressWarnings("unchecked")
+            Query<String> typedQuery = (Query<String>) query;
+            return typedQuery;
+        }, 10);
+    }
+
+    @Test
+    public void requestedRowsOnlyTest() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        Assert.assertFalse(calls.contains("SessionFactory.openSession"));
+
+        subscriber.subscription.request(2);
+        Assert.assertEquals(Arrays.asList("a", "b"), subscriber.items);
+        Assert.assertFalse(subscriber.completed);
+        Assert.assertTrue(calls.contains("Query.setFetchSize"));
+
+        subscriber.subscription.request(5);
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), subscriber.items);
+        Assert.assertTrue(subscriber.completed);
+        assertReleased();
+    }
+
+    @Test
+    public void cancelReleasesCursorTest() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+        Assert.assertEquals(Arrays.asList("a"), subscriber.items);
+        Assert.assertFalse(subscriber.completed);
+        assertReleased();
+    }
+
+    @Test
+    public void requestFromOnNextTest() {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(final String item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), subscriber.items);
+        Assert.assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void nonPositiveRequestTest() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+        Assert.assertTrue(subscriber.items.isEmpty());
+    }
+
+    private void assertReleased() {
+        Assert.assertTrue(calls.contains("ScrollableResults.close"));
+        Assert.assertTrue(calls.contains("Transaction.rollback"));
+        Assert.assertTrue(calls.contains("Session.close"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T stub(final Class<T> type, final Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName();
+                default:
+                    calls.add(type.getSimpleName() + "." + method.getName());
+                    Object result = answer.answer(method.getName(), args);
+                    if (result == null && method.getReturnType().isInstance(proxy)) {
+                        return proxy;
+                    }
+                    if (result == null && method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+                    return result;
+            }
+        });
+    }
+
+    private interface Answer {
+        Object answer(String name, Object[] args);
+    }
+
+    private static class RecordingSubscriber implements ResultFlow.Subscriber<String> {
+        final List<String> items = new ArrayList<>();
+        ResultFlow.Subscription subscription;
+        boolean completed;
+        Throwable error;
+
+        @Override
+        public void onSubscribe(final ResultFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final String item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.brahma.support;
+
+import com.brahma.dao.support.ScrollableResultsIterator;
+import com.brahma.testclass.TestEntity;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ScrollableResultsIteratorTest {
+    private static SessionFactory sessionFactory;
+
+    @BeforeClass
+    public static void setUp() {
+        sessionFactory = ManagedEntitiesTest.sessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    public void keepsEntitiesManagedBeforeTest() {
+        try (Session session = sessionFactory.openSession()) {
+            TestEntity managed = new TestEntity(1L, "a");
+            session.persist(managed);
+            managed.setName("changed");
+            TestEntity loaded = new TestEntity(2L, "b");
+
+            List<TestEntity> rows;
+            try (Stream<TestEntity> stream = ScrollableResultsIterator.stream(session, query(session,
+                    Arrays.asList(managed, loaded)), 10)) {
+                rows = stream.collect(Collectors.toList());
+            }
+            Assert.assertEquals(Arrays.asList(managed, loaded), rows);
+            Assert.assertTrue(session.contains(managed));
+            Assert.assertEquals("changed", managed.getName());
+            Assert.assertFalse(session.contains(loaded));
+        }
+    }
+
+    private static Query<TestEntity> query(Session session, List<TestEntity> rows) {
+        Iterator<TestEntity> iterator = rows.iterator();
+        TestEntity[] current = new TestEntity[1];
+        ScrollableResults results = stub(ScrollableResults.class, (name, args) -> {
+            if ("next".equals(name)) {
+                current[0] = iterator.hasNext() ? iterator.next() : null;
+                if (current[0] != null && !session.contains(current[0])) {
+                    session.persist(current[0]);
+                }
+                return current[0] != null;
+            }
+            return "get".equals(name) ? current[0] : null;
+        });
+        Object[] query = new Object[1];
+        query[0] = stub(Query.class, (name, args) -> "scroll".equals(name) ? results : query[0]);
+        @SuppressWarnings("unchecked")
+        Query<TestEntity> typedQuery = (Query<TestEntity>) query[0];
+        return typedQuery;
+    }
+
+    private static <T> T stub(Class<T> type, Answer answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> answer.answer(method.getName(), args)));
+    }
+
+    private interface Answer {
+        Object answer(String name, Object[] args);
+    }
+}
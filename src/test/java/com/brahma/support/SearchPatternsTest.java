@@ -0,0 +1,18 @@
+package com.brahma.support;
+
+import com.brahma.dao.support.SearchPatterns;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SearchPatternsTest {
+    @Test
+    public void startsWithTest() {
+        Assert.assertEquals("ORD-1%", SearchPatterns.startsWith("ORD-1"));
+        Assert.assertEquals("%", SearchPatterns.startsWith(""));
+    }
+
+    @Test
+    public void startsWithEscapesWildcardsTest() {
+        Assert.assertEquals("50\\%\\_off\\\\%", SearchPatterns.startsWith("50%_off\\"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.brahma.support;
+
+import com.brahma.dao.support.SessionTasks;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SessionTasksTest {
+    private final List<String> calls = new ArrayList<>();
+    private final List<Synchronization> synchronizations = new ArrayList<>();
+
+    @Test
+    public void afterCompletionWithoutTransactionTest() {
+        SessionTasks.afterCompletion(session(false), () -> calls.add("action"));
+        Assert.assertEquals(1, calls.size());
+        Assert.assertTrue(synchronizations.isEmpty());
+    }
+
+    @Test
+    public void afterCompletionWithTransactionTest() {
+        SessionTasks.afterCompletion(session(true), () -> calls.add("action"));
+        Assert.assertTrue(calls.isEmpty());
+        Assert.assertEquals(1, synchronizations.size());
+        synchronizations.get(0).beforeCompletion();
+        Assert.assertTrue(calls.isEmpty());
+        synchronizations.get(0).afterCompletion(Status.STATUS_COMMITTED);
+        Assert.assertEquals(1, calls.size());
+    }
+
+    private Session session(final boolean active) {
+        Transaction transaction = (Transaction) Proxy.newProxyInstance(Transaction.class.getClassLoader(),
+                new Class[]{Transaction.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isActive":
+                            return active;
+                        case "registerSynchronization":
+                            synchronizations.add((Synchronization) args[0]);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class[]{Session.class},
+                (proxy, method, args) -> {
+                    if ("getTransaction".equals(method.getName())) {
+                        return transaction;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,47 @@
+package com.brahma.support;
+
+import com.brahma.dao.meta.SearchMeta;
+import com.brahma.dao.meta.SortType;
+import com.brahma.dao.support.SlowQueryLog;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class SlowQueryLogTest {
+    private final List<Object[]> warnings = new ArrayList<>();
+    private final Logger logger = (Logger) Proxy.newProxyInstance(Logger.class.getClassLoader(),
+            new Class[]{Logger.class}, (proxy, method, args) -> {
+                if ("warn".equals(method.getName())) {
+                    warnings.add((Object[]) args[1]);
+                }
+                return null;
+            });
+
+    @Test
+    public void thresholdTest() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(100, TimeUnit.MILLISECONDS, logger);
+        Assert.assertFalse(slowQueryLog.isSlow(TimeUnit.MILLISECONDS.toNanos(99)));
+        Assert.assertTrue(slowQueryLog.isSlow(TimeUnit.MILLISECONDS.toNanos(100)));
+        Assert.assertFalse(SlowQueryLog.DISABLED.isSlow(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void logShapeTest() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(1, TimeUnit.MILLISECONDS, logger);
+        SearchMeta searchParams = SearchMeta.builder().sortBy("orderId").sortType(SortType.DESC).maxResults(50).build();
+        slowQueryLog.log(String.class, "search", Arrays.asList("orderId", "parent.id"), searchParams, 7,
+                TimeUnit.MILLISECONDS.toNanos(250));
+        Assert.assertArrayEquals(new Object[]{"String", "search", 250L, Arrays.asList("orderId", "parent.id"), "orderId",
+                SortType.DESC, 50, 7}, warnings.get(0));
+
+        slowQueryLog.log(String.class, "searchReadOnly", Arrays.asList(), null, 0, TimeUnit.MILLISECONDS.toNanos(2));
+        Assert.assertArrayEquals(new Object[]{"String", "searchReadOnly", 2L, Arrays.asList(), null, null, null, 0},
+                warnings.get(1));
+    }
+}
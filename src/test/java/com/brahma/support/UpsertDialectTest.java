@@ -0,0 +1,98 @@
+package com.brahma.support;
+
+import com.brahma.dao.support.UpsertDialect;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.HSQLDialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.dialect.MySQL57InnoDBDialect;
+import org.hibernate.dialect.Oracle12cDialect;
+import org.hibernate.dialect.PostgreSQL94Dialect;
+import org.hibernate.dialect.PostgreSQL95Dialect;
+import org.hibernate.dialect.SQLServer2012Dialect;
+import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.ProcessingException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class UpsertDialectTest {
+    @Test
+    public void dialectFamilyTest() {
+        Assert.assertEquals(UpsertDialect.POSTGRESQL, UpsertDialect.of(new PostgreSQL95Dialect()));
+        Assert.assertEquals(UpsertDialect.MYSQL, UpsertDialect.of(new MySQL57InnoDBDialect()));
+        Assert.assertEquals(UpsertDialect.MYSQL, UpsertDialect.of(new MariaDBDialect()));
+        Assert.assertEquals(UpsertDialect.H2, UpsertDialect.of(new H2Dialect()));
+        Assert.assertEquals(UpsertDialect.SQL_SERVER, UpsertDialect.of(new SQLServer2012Dialect()));
+        Assert.assertEquals(UpsertDialect.ORACLE, UpsertDialect.of(new Oracle12cDialect()));
+    }
+
+    @Test
+    public void sessionFactoryDialectTest() {
+        Assert.assertEquals(UpsertDialect.POSTGRESQL, UpsertDialect.of(sessionFactory(new PostgreSQL95Dialect())));
+    }
+
+    @Test(expected = ProcessingException.class)
+    public void unsupportedDialectTest() {
+        UpsertDialect.of(new HSQLDialect());
+    }
+
+    @Test(expected = ProcessingException.class)
+    public void postgresqlWithoutOnConflictTest() {
+        UpsertDialect.of(new PostgreSQL94Dialect());
+    }
+
+    @Test
+    public void createSqlTest() {
+        List<String> columns = Arrays.asList("id", "order_id", "status");
+        List<String> keys = Collections.singletonList("order_id");
+        List<String> updated = Collections.singletonList("status");
+        Assert.assertEquals("insert into brahma_order (id, order_id, status) values (?, ?, ?) on conflict (order_id) "
+                + "do update set status = excluded.status", UpsertDialect.POSTGRESQL.createSql("brahma_order", columns,
+                keys, updated));
+        Assert.assertEquals("insert into brahma_order (id, order_id, status) values (?, ?, ?) on duplicate key update "
+                + "status = values(status)", UpsertDialect.MYSQL.createSql("brahma_order", columns, keys, updated));
+        Assert.assertEquals("merge into brahma_order t using (select ? as id, ? as order_id, ? as status) s on "
+                + "(t.order_id = s.order_id) when matched then update set t.status = s.status when not matched then "
+                + "insert (id, order_id, status) values (s.id, s.order_id, s.status)",
+                UpsertDialect.H2.createSql("brahma_order", columns, keys, updated));
+        Assert.assertEquals("merge into brahma_order with (holdlock) t using (select ? as id, ? as order_id, ? as "
+                + "status) s on (t.order_id = s.order_id) when matched then update set t.status = s.status when not "
+                + "matched then insert (id, order_id, status) values (s.id, s.order_id, s.status);",
+                UpsertDialect.SQL_SERVER.createSql("brahma_order", columns, keys, updated));
+        Assert.assertEquals("merge into brahma_order t using (select ? as id, ? as order_id, ? as status from dual) s "
+                + "on (t.order_id = s.order_id) when matched then update set t.status = s.status when not matched "
+                + "then insert (id, order_id, status) values (s.id, s.order_id, s.status)",
+                UpsertDialect.ORACLE.createSql("brahma_order", columns, keys, updated));
+    }
+
+    @Test
+    public void createSqlWithoutUpdatedColumnsTest() {
+        List<String> columns = Collections.singletonList("id");
+        List<String> keys = Collections.singletonList("id");
+        Assert.assertEquals("insert into tag (id) values (?) on conflict (id) do nothing",
+                UpsertDialect.POSTGRESQL.createSql("tag", columns, keys, Collections.emptyList()));
+        Assert.assertEquals("insert into tag (id) values (?) on duplicate key update id = id",
+                UpsertDialect.MYSQL.createSql("tag", columns, keys, Collections.emptyList()));
+    }
+
+    private static SessionFactory sessionFactory(Dialect dialect) {
+        JdbcServices jdbcServices = stub(JdbcServices.class, "getDialect", dialect);
+        return stub(SessionFactoryImplementor.class, "getJdbcServices", jdbcServices);
+    }
+
+    private static <T> T stub(Class<T> type, String method, Object value) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, called, args) -> {
+            if (called.getName().equals(method)) {
+                return value;
+            }
+            throw new UnsupportedOperationException(called.getName());
+        }));
+    }
+}
@@ -0,0 +1,32 @@
+package com.brahma.testclass;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+public class TestEntity {
+    @Id
+    private Long id;
+    private String name;
+
+    public TestEntity() {
+
+    }
+
+    public TestEntity(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}